@@ -0,0 +1,109 @@
+package org.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.Main.Graph;
+
+// Synthetic road-like inputs: a side x side grid with random edge costs in both directions.
+// Vertex ids are 1000 + row * side + col, so benchmarks can pick pairs by grid position.
+final class BenchmarkGraphs {
+
+    private BenchmarkGraphs() {
+    }
+
+    static long id(int row, int col, int side) {
+        return 1000 + (long) row * side + col;
+    }
+
+    static Graph grid(int side, long seed) {
+        Graph graph = new Graph();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                graph.addVertex(id(r, c, side), 10.0 + c * 0.001, 55.0 + r * 0.001);
+            }
+        }
+        Random random = new Random(seed);
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                if (c + 1 < side) addUndirected(graph, id(r, c, side), id(r, c + 1, side), 60 + random.nextInt(60));
+                if (r + 1 < side) addUndirected(graph, id(r, c, side), id(r + 1, c, side), 110 + random.nextInt(60));
+            }
+        }
+        return graph;
+    }
+
+    // The same grid in the text format read by Graph.readGraphFromInput and MappedGraphReader
+    static void writeGrid(Path path, int side, long seed) throws IOException {
+        Random random = new Random(seed);
+        int edges = 4 * side * (side - 1);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(side * side + " " + edges);
+            writer.newLine();
+            for (int r = 0; r < side; r++) {
+                for (int c = 0; c < side; c++) {
+                    writer.write(id(r, c, side) + " " + (10.0 + c * 0.001) + " " + (55.0 + r * 0.001));
+                    writer.newLine();
+                }
+            }
+            for (int r = 0; r < side; r++) {
+                for (int c = 0; c < side; c++) {
+                    if (c + 1 < side) writeUndirected(writer, id(r, c, side), id(r, c + 1, side), 60 + random.nextInt(60));
+                    if (r + 1 < side) writeUndirected(writer, id(r, c, side), id(r + 1, c, side), 110 + random.nextInt(60));
+                }
+            }
+        }
+    }
+
+    // Random pairs whose grid distance (rows plus columns apart) falls into the band
+    static long[][] pairs(int side, DistanceBand band, int count, long seed) {
+        Random random = new Random(seed);
+        long[][] pairs = new long[count][];
+        int found = 0;
+        while (found < count) {
+            int r1 = random.nextInt(side);
+            int c1 = random.nextInt(side);
+            int r2 = random.nextInt(side);
+            int c2 = random.nextInt(side);
+            if (band.contains(Math.abs(r1 - r2) + Math.abs(c1 - c2), side)) {
+                pairs[found++] = new long[] {id(r1, c1, side), id(r2, c2, side)};
+            }
+        }
+        return pairs;
+    }
+
+    private static void addUndirected(Graph graph, long a, long b, int cost) {
+        graph.addEdge(a, b, cost);
+        graph.addEdge(b, a, cost);
+    }
+
+    private static void writeUndirected(BufferedWriter writer, long a, long b, int cost) throws IOException {
+        writer.write(a + " " + b + " " + cost);
+        writer.newLine();
+        writer.write(b + " " + a + " " + cost);
+        writer.newLine();
+    }
+
+    // Query distance as a fraction of the grid side
+    enum DistanceBand {
+        SHORT(0.0, 0.1),
+        MEDIUM(0.1, 0.5),
+        LONG(0.5, 2.0);
+
+        private final double from;
+        private final double to;
+
+        DistanceBand(double from, double to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        boolean contains(int gridDistance, int side) {
+            double fraction = gridDistance / (double) side;
+            return fraction >= from && fraction < to;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.Main.CHGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Full preprocessing of a fresh graph, sequential and in parallel rounds. Every invocation
+// contracts a new graph, so single-shot timing is used.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ContractionBenchmark {
+
+    @Param({"50", "100"})
+    public int side;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Graph graph;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        graph = BenchmarkGraphs.grid(side, 1);
+    }
+
+    @Benchmark
+    public CHGraph contract() {
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        if (threads == 1) {
+            contractionHierarchy.preprocess();
+        } else {
+            contractionHierarchy.preprocessParallel(threads);
+        }
+        return contractionHierarchy.getCHGraph();
+    }
+}
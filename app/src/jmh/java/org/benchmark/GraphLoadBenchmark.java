@@ -0,0 +1,72 @@
+package org.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.Main.CSRGraph;
+import org.Main.Graph;
+import org.Main.GraphSnapshot;
+import org.Main.MappedGraphReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Time to get a graph into memory: text parsing into Graph, mapped parsing into CSRGraph,
+// and opening a binary snapshot
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GraphLoadBenchmark {
+
+    @Param({"100", "300"})
+    public int side;
+
+    private Path textFile;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        textFile = Files.createTempFile("grid", ".graph");
+        snapshotFile = Files.createTempFile("grid", ".snapshot");
+        BenchmarkGraphs.writeGrid(textFile, side, 1);
+        GraphSnapshot.write(MappedGraphReader.read(textFile), snapshotFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public Graph readText() throws IOException {
+        try (InputStream input = Files.newInputStream(textFile)) {
+            return Graph.readGraphFromInput(input);
+        }
+    }
+
+    @Benchmark
+    public CSRGraph readMapped() throws IOException {
+        return MappedGraphReader.read(textFile);
+    }
+
+    @Benchmark
+    public CSRGraph readMappedParallel() throws IOException {
+        return MappedGraphReader.read(textFile, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Benchmark
+    public CSRGraph openSnapshot() throws IOException {
+        return GraphSnapshot.open(snapshotFile);
+    }
+}
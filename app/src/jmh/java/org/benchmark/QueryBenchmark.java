@@ -0,0 +1,154 @@
+package org.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.Main.AStar;
+import org.Main.BidirectionalDijkstra;
+import org.Main.BidirectionalDijkstraCH;
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.GeoHeuristic;
+import org.Main.Graph;
+import org.Main.Landmarks;
+import org.Main.OffHeapStorage;
+import org.Main.QueryResult;
+import org.Main.QueryWorkspace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Single point-to-point query per invocation, cycling through a fixed set of pairs in one
+// distance band. The graph and hierarchy are built once per trial in a Scope.Benchmark state
+// shared by all threads; the workspaces and the position in the pair list are per thread,
+// as in real use.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Graphs {
+        @Param({"100", "250"})
+        public int side;
+
+        @Param({"SHORT", "MEDIUM", "LONG"})
+        public BenchmarkGraphs.DistanceBand band;
+
+        private Graph graph;
+        private CSRGraph csrGraph;
+        private CHGraph hierarchy;
+        private GeoHeuristic heuristic;
+        private Landmarks landmarks;
+        private OffHeapStorage offHeapStorage;
+        private CSRGraph offHeapGraph;
+        private CHGraph offHeapHierarchy;
+        private long[][] pairs;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = BenchmarkGraphs.grid(side, 1);
+            csrGraph = CSRGraph.fromGraph(graph);
+            heuristic = new GeoHeuristic(csrGraph);
+            landmarks = Landmarks.select(csrGraph, 16, Landmarks.Strategy.AVOID, Runtime.getRuntime().availableProcessors());
+            ContractionHierarchy contractionHierarchy = new ContractionHierarchy(BenchmarkGraphs.grid(side, 1));
+            contractionHierarchy.preprocessParallel(Runtime.getRuntime().availableProcessors());
+            hierarchy = contractionHierarchy.getCHGraph();
+            offHeapStorage = new OffHeapStorage();
+            offHeapGraph = offHeapStorage.copy(csrGraph);
+            offHeapHierarchy = offHeapStorage.copy(hierarchy);
+            pairs = BenchmarkGraphs.pairs(side, band, 1024, 7);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            offHeapStorage.close();
+        }
+    }
+
+    private QueryWorkspace csrWorkspace;
+    private QueryWorkspace chWorkspace;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(Graphs graphs) {
+        csrWorkspace = new QueryWorkspace(graphs.csrGraph);
+        chWorkspace = new QueryWorkspace(graphs.hierarchy);
+    }
+
+    private long[] nextPair(Graphs graphs) {
+        long[] pair = graphs.pairs[next];
+        next = (next + 1) % graphs.pairs.length;
+        return pair;
+    }
+
+    @Benchmark
+    public QueryResult dijkstraGraph(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return Dijkstra.dijkstra(graphs.graph, pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public QueryResult dijkstra(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return Dijkstra.dijkstra(graphs.csrGraph, pair[0], pair[1], csrWorkspace);
+    }
+
+    @Benchmark
+    public QueryResult bidirectionalDijkstra(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return BidirectionalDijkstra.bidirectionalDijkstra(graphs.csrGraph, pair[0], pair[1], csrWorkspace);
+    }
+
+    @Benchmark
+    public QueryResult aStar(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return AStar.aStar(graphs.csrGraph, pair[0], pair[1], graphs.heuristic, csrWorkspace);
+    }
+
+    @Benchmark
+    public QueryResult bidirectionalAStar(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return AStar.bidirectionalAStar(graphs.csrGraph, pair[0], pair[1], graphs.heuristic, csrWorkspace);
+    }
+
+    @Benchmark
+    public QueryResult alt(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return AStar.bidirectionalAStar(graphs.csrGraph, pair[0], pair[1], graphs.landmarks, csrWorkspace);
+    }
+
+    @Benchmark
+    public QueryResult bidirectionalDijkstraCH(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return BidirectionalDijkstraCH.bidirectionalDijkstra(graphs.hierarchy, pair[0], pair[1], chWorkspace);
+    }
+
+    @Benchmark
+    public QueryResult shortestPathCH(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return BidirectionalDijkstraCH.shortestPath(graphs.hierarchy, pair[0], pair[1], chWorkspace);
+    }
+
+    // The same searches on copies of the graph and hierarchy in off-heap memory
+
+    @Benchmark
+    public QueryResult dijkstraOffHeap(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return Dijkstra.dijkstra(graphs.offHeapGraph, pair[0], pair[1], csrWorkspace);
+    }
+
+    @Benchmark
+    public QueryResult bidirectionalDijkstraCHOffHeap(Graphs graphs) {
+        long[] pair = nextPair(graphs);
+        return BidirectionalDijkstraCH.bidirectionalDijkstra(graphs.offHeapHierarchy, pair[0], pair[1], chWorkspace);
+    }
+}
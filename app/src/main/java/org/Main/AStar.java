@@ -0,0 +1,125 @@
+package org.Main;
+
+// Goal-directed variants of Dijkstra on a CSRGraph. Vertices are ordered by distance plus
+// a lower bound on the remaining distance, so the search grows towards the target instead
+// of in a circle around the source.
+public class AStar {
+
+    public static QueryResult aStar(CSRGraph graph, long source, long target, Heuristic heuristic) {
+        return aStar(graph, source, target, heuristic, new QueryWorkspace(graph));
+    }
+
+    public static QueryResult aStar(CSRGraph graph, long source, long target, Heuristic heuristic, QueryWorkspace workspace) {
+        Dijkstra.checkWorkspace(graph.getVertexCount(), workspace);
+        int s = graph.getIndex(source);
+        int t = graph.getIndex(target);
+        if (s < 0 || t < 0) {
+            return new QueryResult(-1, 0);
+        }
+
+        SearchSpace space = workspace.forward();
+        space.reset();
+        IndexedHeap heap = space.getHeap();
+        long relaxedEdges = 0;
+
+        space.setDistance(s, 0L, -1);
+        heap.push(s, heuristic.estimate(s, t));
+
+        // With a consistent heuristic every vertex is final when it is polled
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            long dist = space.getDistance(u);
+
+            if (u == t) {
+                return new QueryResult(dist, relaxedEdges);
+            }
+
+            for (int e = graph.getEdgeStart(u); e < graph.getEdgeEnd(u); e++) {
+                int v = graph.getTarget(e);
+                long newDist = dist + graph.getCost(e);
+
+                if (newDist < space.getDistance(v)) {
+                    space.setDistance(v, newDist, u);
+                    heap.push(v, newDist + heuristic.estimate(v, t));
+                    relaxedEdges++;
+                }
+            }
+        }
+
+        return new QueryResult(-1, relaxedEdges);
+    }
+
+    public static QueryResult bidirectionalAStar(CSRGraph graph, long source, long target, Heuristic heuristic) {
+        return bidirectionalAStar(graph, source, target, heuristic, new QueryWorkspace(graph));
+    }
+
+    // Bidirectional A* with average potentials: the forward search uses
+    // p(v) = (h(v, t) - h(s, v)) / 2 and the backward search -p(v), which keeps both consistent.
+    // Keys are stored doubled, 2 * dist + 2 * p(v), to stay in integers. The search may stop
+    // once the two smallest keys add up to twice the best path found.
+    public static QueryResult bidirectionalAStar(CSRGraph graph, long source, long target, Heuristic heuristic,
+                                                 QueryWorkspace workspace) {
+        Dijkstra.checkWorkspace(graph.getVertexCount(), workspace);
+        int s = graph.getIndex(source);
+        int t = graph.getIndex(target);
+        if (s < 0 || t < 0) {
+            return new QueryResult(-1, 0);
+        }
+        if (s == t) {
+            return new QueryResult(0, 0);
+        }
+
+        workspace.reset();
+        SearchSpace spaceF = workspace.forward();
+        SearchSpace spaceR = workspace.backward();
+        IndexedHeap heapF = spaceF.getHeap();
+        IndexedHeap heapR = spaceR.getHeap();
+        long relaxedEdges = 0;
+
+        spaceF.setDistance(s, 0L, -1);
+        spaceR.setDistance(t, 0L, -1);
+        heapF.push(s, potential(heuristic, s, s, t));
+        heapR.push(t, -potential(heuristic, t, s, t));
+
+        long shortestPath = Long.MAX_VALUE;
+
+        while (!heapF.isEmpty() && !heapR.isEmpty()) {
+            if (shortestPath != Long.MAX_VALUE && heapF.peekKey() + heapR.peekKey() >= 2 * shortestPath) {
+                break;
+            }
+
+            boolean forward = heapF.peekKey() <= heapR.peekKey();
+            SearchSpace spaceThis = forward ? spaceF : spaceR;
+            SearchSpace spaceOther = forward ? spaceR : spaceF;
+            int u = spaceThis.getHeap().poll();
+            long dist = spaceThis.getDistance(u);
+
+            int start = forward ? graph.getEdgeStart(u) : graph.getInEdgeStart(u);
+            int end = forward ? graph.getEdgeEnd(u) : graph.getInEdgeEnd(u);
+            for (int e = start; e < end; e++) {
+                int v = forward ? graph.getTarget(e) : graph.getSource(e);
+                long newDist = dist + (forward ? graph.getCost(e) : graph.getInCost(e));
+
+                if (newDist < spaceThis.getDistance(v)) {
+                    spaceThis.setDistance(v, newDist, u);
+                    long p = potential(heuristic, v, s, t);
+                    spaceThis.getHeap().push(v, 2 * newDist + (forward ? p : -p));
+                    relaxedEdges++;
+
+                    long otherDist = spaceOther.getDistance(v);
+                    if (otherDist != Long.MAX_VALUE && newDist + otherDist < shortestPath) {
+                        shortestPath = newDist + otherDist;
+                        workspace.countMeetingUpdate();
+                    }
+                }
+            }
+        }
+
+        return new QueryResult(shortestPath == Long.MAX_VALUE ? -1 : shortestPath, relaxedEdges);
+    }
+
+    // Twice the forward potential of v: h(v, t) - h(s, v)
+    private static long potential(Heuristic heuristic, int v, int s, int t) {
+        return heuristic.estimate(v, t) - heuristic.estimate(s, v);
+    }
+}
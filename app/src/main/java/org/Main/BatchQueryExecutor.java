@@ -0,0 +1,169 @@
+package org.Main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs batches of point-to-point queries concurrently. The batch is split into chunks that
+// are submitted to the executor; a chunk borrows a workspace from the executor's pool for
+// the engine and returns it afterwards, so repeated batches on the same engine reuse their
+// workspaces. A semaphore caps the number of chunks running at the same time, and with it
+// the number of O(n) workspaces per engine, since a virtual-thread executor would otherwise
+// start every chunk of the batch at once.
+public class BatchQueryExecutor implements AutoCloseable {
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final Semaphore running;
+
+    // Idle workspaces per engine; an engine's pool goes away when the engine is collected
+    private final Map<QueryEngine, ConcurrentLinkedQueue<QueryWorkspace>> pools =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    public BatchQueryExecutor(ExecutorService executor, int chunkSize, int maxConcurrency) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + maxConcurrency);
+        }
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.running = new Semaphore(maxConcurrency);
+    }
+
+    public static BatchQueryExecutor platformThreads(int threads) {
+        return new BatchQueryExecutor(Executors.newFixedThreadPool(threads), 64, threads);
+    }
+
+    // One virtual thread per chunk, with as many chunks running as there are carrier threads
+    public static BatchQueryExecutor virtualThreads() {
+        return virtualThreads(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static BatchQueryExecutor virtualThreads(int maxConcurrency) {
+        return new BatchQueryExecutor(Executors.newVirtualThreadPerTaskExecutor(), 64, maxConcurrency);
+    }
+
+    // Answer query i from sources[i] to targets[i]; results are returned in input order
+    public BatchResult execute(QueryEngine engine, long[] sources, long[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Got " + sources.length + " sources but " + targets.length + " targets");
+        }
+        int count = sources.length;
+        QueryResult[] results = new QueryResult[count];
+        ConcurrentLinkedQueue<QueryWorkspace> workspaces = pools.computeIfAbsent(engine, e -> new ConcurrentLinkedQueue<>());
+        AtomicInteger created = new AtomicInteger();
+
+        long start = System.nanoTime();
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int chunkStart = 0; chunkStart < count; chunkStart += chunkSize) {
+            int from = chunkStart;
+            int to = Math.min(count, chunkStart + chunkSize);
+            chunks.add(executor.submit(() -> {
+                running.acquire();
+                try {
+                    QueryWorkspace workspace = workspaces.poll();
+                    if (workspace == null) {
+                        workspace = engine.newWorkspace();
+                        created.incrementAndGet();
+                    }
+                    try {
+                        for (int i = from; i < to; i++) {
+                            results[i] = engine.query(sources[i], targets[i], workspace);
+                        }
+                    } finally {
+                        workspaces.add(workspace);
+                    }
+                } finally {
+                    running.release();
+                }
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Query failed", e.getCause());
+        }
+        long end = System.nanoTime();
+
+        return new BatchResult(results, end - start, workspaces.size(), created.get());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        pools.clear();
+    }
+
+    // Results of a batch in input order plus aggregate statistics
+    public static class BatchResult {
+        private final QueryResult[] results;
+        private final long elapsedNanos;
+        private final int workspaceCount;
+        private final int workspacesCreated;
+
+        BatchResult(QueryResult[] results, long elapsedNanos, int workspaceCount, int workspacesCreated) {
+            this.results = results;
+            this.elapsedNanos = elapsedNanos;
+            this.workspaceCount = workspaceCount;
+            this.workspacesCreated = workspacesCreated;
+        }
+
+        public QueryResult getResult(int i) {
+            return results[i];
+        }
+
+        public int getQueryCount() {
+            return results.length;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        // Workspaces pooled for the engine after the batch, at most the concurrency limit
+        public int getWorkspaceCount() {
+            return workspaceCount;
+        }
+
+        // Workspaces this batch had to allocate; 0 when earlier batches left enough in the pool
+        public int getWorkspacesCreated() {
+            return workspacesCreated;
+        }
+
+        public double getQueriesPerSecond() {
+            return elapsedNanos == 0 ? 0 : results.length * 1e9 / elapsedNanos;
+        }
+
+        public long getTotalRelaxedEdges() {
+            long total = 0;
+            for (QueryResult result : results) {
+                total += result.getRelaxedEdges();
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return results.length + " queries in " + elapsedNanos / 1_000_000.0 + " ms ("
+                    + Math.round(getQueriesPerSecond()) + " queries/s, " + workspaceCount + " workspaces, "
+                    + workspacesCreated + " new)";
+        }
+    }
+}
@@ -93,8 +93,78 @@ public class BidirectionalDijkstra {
         // If no path was found, return -1
         return new QueryResult(shortestPath == Long.MAX_VALUE ? -1 : shortestPath, relaxedEdgesL + relaxedEdgesR);
     }
-    
-    
-    
 
+    // Same search on the CSR representation; the backward search follows incoming edges
+    public static QueryResult bidirectionalDijkstra(CSRGraph graph, long source, long target) {
+        return bidirectionalDijkstra(graph, source, target, new QueryWorkspace(graph));
+    }
+
+    // Search reusing a workspace allocated once per thread for many queries
+    public static QueryResult bidirectionalDijkstra(CSRGraph graph, long source, long target, QueryWorkspace workspace) {
+        Dijkstra.checkWorkspace(graph.getVertexCount(), workspace);
+        int s = graph.getIndex(source);
+        int t = graph.getIndex(target);
+        if (s < 0 || t < 0) {
+            return new QueryResult(-1, 0);
+        }
+        if (s == t) {
+            return new QueryResult(0, 0);
+        }
+
+        workspace.reset();
+        SearchSpace spaceL = workspace.forward();
+        SearchSpace spaceR = workspace.backward();
+        IndexedHeap heapL = spaceL.getHeap();
+        IndexedHeap heapR = spaceR.getHeap();
+
+        long relaxedEdges = 0;
+        spaceL.setDistance(s, 0L, -1);
+        spaceR.setDistance(t, 0L, -1);
+        heapL.push(s, 0L);
+        heapR.push(t, 0L);
+
+        long shortestPath = Long.MAX_VALUE;
+
+        while (!heapL.isEmpty() || !heapR.isEmpty()) {
+            long forwardKey = heapL.isEmpty() ? Long.MAX_VALUE : heapL.peekKey();
+            long backwardKey = heapR.isEmpty() ? Long.MAX_VALUE : heapR.peekKey();
+
+            if (Math.min(forwardKey, backwardKey) >= shortestPath) {
+                break;
+            }
+
+            boolean processL = forwardKey <= backwardKey;
+            SearchSpace spaceThis = processL ? spaceL : spaceR;
+            SearchSpace spaceOther = processL ? spaceR : spaceL;
+
+            int u = spaceThis.getHeap().poll();
+
+            if (spaceThis.isSettled(u) || spaceOther.isSettled(u)) {
+                continue;
+            }
+            spaceThis.settle(u);
+            long distU = spaceThis.getDistance(u);
+
+            int start = processL ? graph.getEdgeStart(u) : graph.getInEdgeStart(u);
+            int end = processL ? graph.getEdgeEnd(u) : graph.getInEdgeEnd(u);
+            for (int e = start; e < end; e++) {
+                int v = processL ? graph.getTarget(e) : graph.getSource(e);
+                long newDist = distU + (processL ? graph.getCost(e) : graph.getInCost(e));
+
+                if (newDist < spaceThis.getDistance(v)) {
+                    spaceThis.setDistance(v, newDist, u);
+                    spaceThis.getHeap().push(v, newDist);
+                    relaxedEdges++;
+                }
+
+                long otherDist = spaceOther.getDistance(v);
+                if (otherDist != Long.MAX_VALUE && spaceThis.getDistance(v) + otherDist < shortestPath) {
+                    shortestPath = spaceThis.getDistance(v) + otherDist;
+                    workspace.countMeetingUpdate();
+                }
+            }
+        }
+
+        return new QueryResult(shortestPath == Long.MAX_VALUE ? -1 : shortestPath, relaxedEdges);
+    }
 }
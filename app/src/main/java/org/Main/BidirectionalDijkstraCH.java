@@ -93,6 +93,246 @@ public class BidirectionalDijkstraCH {
         // If no path was found, return -1
         return new QueryResult(shortestPath == Long.MAX_VALUE ? -1 : shortestPath, relaxedEdgesL + relaxedEdgesR);
     }
-    
 
+    // Same search on the CSR form of the augmented graph; the backward search follows incoming edges
+    public static QueryResult bidirectionalDijkstra(CSRGraph graph, long source, long target) {
+        return bidirectionalDijkstra(graph, source, target, new QueryWorkspace(graph));
+    }
+
+    // Search reusing a workspace allocated once per thread for many queries
+    public static QueryResult bidirectionalDijkstra(CSRGraph graph, long source, long target, QueryWorkspace workspace) {
+        Dijkstra.checkWorkspace(graph.getVertexCount(), workspace);
+        int s = graph.getIndex(source);
+        int t = graph.getIndex(target);
+        if (s < 0 || t < 0) {
+            return new QueryResult(-1, 0);
+        }
+        if (s == t) {
+            return new QueryResult(0, 0);
+        }
+
+        workspace.reset();
+        SearchSpace spaceL = workspace.forward();
+        SearchSpace spaceR = workspace.backward();
+        IndexedHeap heapL = spaceL.getHeap();
+        IndexedHeap heapR = spaceR.getHeap();
+
+        long relaxedEdges = 0;
+        spaceL.setDistance(s, 0L, -1);
+        spaceR.setDistance(t, 0L, -1);
+        heapL.push(s, 0L);
+        heapR.push(t, 0L);
+
+        long shortestPath = Long.MAX_VALUE;
+
+        while (!heapL.isEmpty() || !heapR.isEmpty()) {
+            long forwardKey = heapL.isEmpty() ? Long.MAX_VALUE : heapL.peekKey();
+            long backwardKey = heapR.isEmpty() ? Long.MAX_VALUE : heapR.peekKey();
+
+            if (Math.min(forwardKey, backwardKey) >= shortestPath) {
+                break;
+            }
+
+            boolean processL = forwardKey <= backwardKey;
+            SearchSpace spaceThis = processL ? spaceL : spaceR;
+            SearchSpace spaceOther = processL ? spaceR : spaceL;
+
+            int u = spaceThis.getHeap().poll();
+
+            if (spaceThis.isSettled(u) || spaceOther.isSettled(u)) {
+                continue;
+            }
+            spaceThis.settle(u);
+            long distU = spaceThis.getDistance(u);
+
+            int start = processL ? graph.getEdgeStart(u) : graph.getInEdgeStart(u);
+            int end = processL ? graph.getEdgeEnd(u) : graph.getInEdgeEnd(u);
+            for (int e = start; e < end; e++) {
+                int v = processL ? graph.getTarget(e) : graph.getSource(e);
+                long newDist = distU + (processL ? graph.getCost(e) : graph.getInCost(e));
+
+                if (newDist < spaceThis.getDistance(v)) {
+                    spaceThis.setDistance(v, newDist, u);
+                    spaceThis.getHeap().push(v, newDist);
+                    relaxedEdges++;
+
+                    // Check if both searches meet
+                    long otherDist = spaceOther.getDistance(v);
+                    if (otherDist != Long.MAX_VALUE && newDist + otherDist < shortestPath) {
+                        shortestPath = newDist + otherDist;
+                        workspace.countMeetingUpdate();
+                    }
+                }
+            }
+        }
+
+        return new QueryResult(shortestPath == Long.MAX_VALUE ? -1 : shortestPath, relaxedEdges);
+    }
+
+    // Contraction hierarchy query: both searches only relax edges towards higher-ranked
+    // vertices, so they meet at the highest vertex of the shortest path
+    public static QueryResult bidirectionalDijkstra(CHGraph hierarchy, long source, long target) {
+        return bidirectionalDijkstra(hierarchy, source, target, new QueryWorkspace(hierarchy));
+    }
+
+    public static QueryResult bidirectionalDijkstra(CHGraph hierarchy, long source, long target, QueryWorkspace workspace) {
+        Dijkstra.checkWorkspace(hierarchy.getVertexCount(), workspace);
+        int s = hierarchy.getIndex(source);
+        int t = hierarchy.getIndex(target);
+        if (s < 0 || t < 0) {
+            return new QueryResult(-1, 0);
+        }
+
+        workspace.reset();
+        if (s == t) {
+            workspace.setMeetingVertex(s);
+            return new QueryResult(0, 0);
+        }
+        SearchSpace spaceL = workspace.forward();
+        SearchSpace spaceR = workspace.backward();
+        IndexedHeap heapL = spaceL.getHeap();
+        IndexedHeap heapR = spaceR.getHeap();
+
+        long relaxedEdges = 0;
+        spaceL.setDistance(s, 0L, -1);
+        spaceR.setDistance(t, 0L, -1);
+        heapL.push(s, 0L);
+        heapR.push(t, 0L);
+
+        long shortestPath = Long.MAX_VALUE;
+
+        // A direction is finished once its smallest key cannot improve the best meeting point;
+        // unlike plain bidirectional Dijkstra, one finished direction does not end the other
+        while (true) {
+            boolean forwardActive = !heapL.isEmpty() && heapL.peekKey() < shortestPath;
+            boolean backwardActive = !heapR.isEmpty() && heapR.peekKey() < shortestPath;
+            if (!forwardActive && !backwardActive) {
+                break;
+            }
+
+            boolean processL = forwardActive && (!backwardActive || heapL.peekKey() <= heapR.peekKey());
+            SearchSpace spaceThis = processL ? spaceL : spaceR;
+            SearchSpace spaceOther = processL ? spaceR : spaceL;
+
+            long distU = spaceThis.getHeap().peekKey();
+            int u = spaceThis.getHeap().poll();
+
+            long otherDist = spaceOther.getDistance(u);
+            if (otherDist != Long.MAX_VALUE && distU + otherDist < shortestPath) {
+                shortestPath = distU + otherDist;
+                workspace.setMeetingVertex(u);
+                workspace.countMeetingUpdate();
+            }
+
+            if (isStalled(hierarchy, spaceThis, u, distU, processL)) {
+                workspace.countStalled();
+                continue;
+            }
+
+            int start = processL ? hierarchy.getUpStart(u) : hierarchy.getDownStart(u);
+            int end = processL ? hierarchy.getUpEnd(u) : hierarchy.getDownEnd(u);
+            for (int e = start; e < end; e++) {
+                int v = processL ? hierarchy.getUpTarget(e) : hierarchy.getDownSource(e);
+                long newDist = distU + (processL ? hierarchy.getUpCost(e) : hierarchy.getDownCost(e));
+
+                if (newDist < spaceThis.getDistance(v)) {
+                    spaceThis.setDistance(v, newDist, u);
+                    spaceThis.getHeap().push(v, newDist);
+                    relaxedEdges++;
+                }
+            }
+        }
+
+        return new QueryResult(shortestPath == Long.MAX_VALUE ? -1 : shortestPath, relaxedEdges);
+    }
+
+    // Contraction hierarchy query that also returns the route, with every shortcut unpacked
+    // into the original vertices it bypasses
+    public static Route shortestPath(CHGraph hierarchy, long source, long target) {
+        return shortestPath(hierarchy, source, target, new QueryWorkspace(hierarchy));
+    }
+
+    public static Route shortestPath(CHGraph hierarchy, long source, long target, QueryWorkspace workspace) {
+        QueryResult result = bidirectionalDijkstra(hierarchy, source, target, workspace);
+        if (result.getShortestPath() < 0) {
+            return new Route(-1, result.getRelaxedEdges(), new long[0], new double[0], new double[0]);
+        }
+
+        int count = unpackPath(hierarchy, workspace);
+        int[] path = workspace.pathBuffer(count);
+        long[] vertices = new long[count];
+        double[] longitude = new double[count];
+        double[] latitude = new double[count];
+        for (int i = 0; i < count; i++) {
+            vertices[i] = hierarchy.getId(path[i]);
+            longitude[i] = hierarchy.getLongitude(path[i]);
+            latitude[i] = hierarchy.getLatitude(path[i]);
+        }
+        return new Route(result.getShortestPath(), result.getRelaxedEdges(), vertices, longitude, latitude);
+    }
+
+    // Write the original vertices of the last query's path into the workspace path buffer and
+    // return their number. Shortcuts are unpacked with an explicit stack of (from, to) pairs
+    // instead of recursion, reusing the workspace buffers between queries.
+    private static int unpackPath(CHGraph hierarchy, QueryWorkspace workspace) {
+        SearchSpace forward = workspace.forward();
+        SearchSpace backward = workspace.backward();
+        int meet = workspace.getMeetingVertex();
+
+        // Hierarchy path: source .. meet along forward parents, then meet .. target along backward parents
+        int forwardLength = 0;
+        for (int v = meet; v >= 0; v = forward.getParent(v)) forwardLength++;
+        int length = forwardLength;
+        for (int v = backward.getParent(meet); v >= 0; v = backward.getParent(v)) length++;
+
+        int[] path = workspace.pathBuffer(length);
+        int i = forwardLength;
+        for (int v = meet; v >= 0; v = forward.getParent(v)) path[--i] = v;
+        i = forwardLength;
+        for (int v = backward.getParent(meet); v >= 0; v = backward.getParent(v)) path[i++] = v;
+
+        // Push the hierarchy edges last to first so that they are unpacked in path order
+        int[] stack = workspace.stackBuffer(2 * length);
+        int top = 0;
+        for (int j = length - 1; j > 0; j--) {
+            stack[top++] = path[j - 1];
+            stack[top++] = path[j];
+        }
+
+        // path[0] is the source and stays; the rest of the buffer is overwritten
+        int count = 1;
+        while (top > 0) {
+            int to = stack[--top];
+            int from = stack[--top];
+            int middle = hierarchy.getUpMiddle(hierarchy.findEdge(from, to));
+            if (middle < 0) {
+                path = workspace.pathBuffer(count + 1);
+                path[count++] = to;
+            } else {
+                stack = workspace.stackBuffer(top + 4);
+                stack[top++] = middle;
+                stack[top++] = to;
+                stack[top++] = from;
+                stack[top++] = middle;
+            }
+        }
+        return count;
+    }
+
+    // Stall-on-demand: u need not be expanded if a higher-ranked vertex already reached in this
+    // direction offers a shorter path to u than its current distance
+    static boolean isStalled(CHGraph hierarchy, SearchSpace space, int u, long distU, boolean forward) {
+        // Forward: edges w -> u with rank w > rank u are the downward edges stored at u;
+        // backward: edges u -> w with rank w > rank u are the upward edges of u
+        int start = forward ? hierarchy.getDownStart(u) : hierarchy.getUpStart(u);
+        int end = forward ? hierarchy.getDownEnd(u) : hierarchy.getUpEnd(u);
+        for (int e = start; e < end; e++) {
+            int w = forward ? hierarchy.getDownSource(e) : hierarchy.getUpTarget(e);
+            long distW = space.getDistance(w);
+            if (distW != Long.MAX_VALUE && distW + (forward ? hierarchy.getDownCost(e) : hierarchy.getUpCost(e)) < distU) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
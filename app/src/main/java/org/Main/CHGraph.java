@@ -0,0 +1,233 @@
+package org.Main;
+
+import java.util.Arrays;
+
+// Compact, query-side form of a contraction hierarchy over dense vertex indices.
+// Upward edges v -> w (rank w > rank v) are used by the forward search; downward edges
+// are stored reversed at their lower endpoint, i.e. at v for an edge w -> v with
+// rank w > rank v, and are used by the backward search. Every edge records the vertex
+// it bypasses if it is a shortcut, or -1 for an original edge. The arrays live on the Java
+// heap; a hierarchy created by OffHeapStorage has no heap arrays and reads the same columns
+// from offHeap instead.
+public class CHGraph {
+    private final VertexIdMap idMap;
+    private final double[] longitude;
+    private final double[] latitude;
+    private final int[] rank;
+
+    private final int[] firstUp;
+    private final int[] upTarget;
+    private final int[] upCost;
+    private final int[] upMiddle;
+
+    private final int[] firstDown;
+    private final int[] downSource;
+    private final int[] downCost;
+    private final int[] downMiddle;
+
+    // Null for heap hierarchies
+    private final OffHeapStorage.HierarchyArrays offHeap;
+
+    CHGraph(VertexIdMap idMap, double[] longitude, double[] latitude, int[] rank,
+            int[] firstUp, int[] upTarget, int[] upCost, int[] upMiddle,
+            int[] firstDown, int[] downSource, int[] downCost, int[] downMiddle) {
+        this.idMap = idMap;
+        this.longitude = longitude;
+        this.latitude = latitude;
+        this.rank = rank;
+        this.firstUp = firstUp;
+        this.upTarget = upTarget;
+        this.upCost = upCost;
+        this.upMiddle = upMiddle;
+        this.firstDown = firstDown;
+        this.downSource = downSource;
+        this.downCost = downCost;
+        this.downMiddle = downMiddle;
+        this.offHeap = null;
+    }
+
+    // Hierarchy arrays outside the heap, created by OffHeapStorage
+    CHGraph(VertexIdMap idMap, OffHeapStorage.HierarchyArrays offHeap) {
+        this.idMap = idMap;
+        this.longitude = null;
+        this.latitude = null;
+        this.rank = null;
+        this.firstUp = null;
+        this.upTarget = null;
+        this.upCost = null;
+        this.upMiddle = null;
+        this.firstDown = null;
+        this.downSource = null;
+        this.downCost = null;
+        this.downMiddle = null;
+        this.offHeap = offHeap;
+    }
+
+    // Build from a list of directed hierarchy edges (from -> to, with cost and middle vertex)
+    static CHGraph fromEdges(VertexIdMap idMap, double[] longitude, double[] latitude, int[] rank,
+                             int[] from, int[] to, int[] cost, int[] middle, int edgeCount) {
+        int n = idMap.size();
+        int[] firstUp = new int[n + 1];
+        int[] firstDown = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            if (rank[to[e]] > rank[from[e]]) {
+                firstUp[from[e] + 1]++;
+            } else {
+                firstDown[to[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            firstUp[v + 1] += firstUp[v];
+            firstDown[v + 1] += firstDown[v];
+        }
+
+        int[] upTarget = new int[firstUp[n]];
+        int[] upCost = new int[firstUp[n]];
+        int[] upMiddle = new int[firstUp[n]];
+        int[] downSource = new int[firstDown[n]];
+        int[] downCost = new int[firstDown[n]];
+        int[] downMiddle = new int[firstDown[n]];
+        int[] nextUp = Arrays.copyOf(firstUp, n);
+        int[] nextDown = Arrays.copyOf(firstDown, n);
+        for (int e = 0; e < edgeCount; e++) {
+            if (rank[to[e]] > rank[from[e]]) {
+                int slot = nextUp[from[e]]++;
+                upTarget[slot] = to[e];
+                upCost[slot] = cost[e];
+                upMiddle[slot] = middle[e];
+            } else {
+                int slot = nextDown[to[e]]++;
+                downSource[slot] = from[e];
+                downCost[slot] = cost[e];
+                downMiddle[slot] = middle[e];
+            }
+        }
+
+        return new CHGraph(idMap, longitude, latitude, rank, firstUp, upTarget, upCost, upMiddle,
+                firstDown, downSource, downCost, downMiddle);
+    }
+
+    public int getVertexCount() {
+        return offHeap == null ? rank.length : offHeap.rank.length();
+    }
+
+    public int getUpEdgeCount() {
+        return offHeap == null ? upTarget.length : offHeap.upTarget.length();
+    }
+
+    public int getDownEdgeCount() {
+        return offHeap == null ? downSource.length : offHeap.downSource.length();
+    }
+
+    // Dense index of an external vertex id, or -1 if the vertex is unknown
+    public int getIndex(long id) {
+        return idMap.getIndex(id);
+    }
+
+    public long getId(int index) {
+        return idMap.getId(index);
+    }
+
+    public VertexIdMap getIdMap() {
+        return idMap;
+    }
+
+    public double getLongitude(int v) {
+        return offHeap == null ? longitude[v] : offHeap.longitude.get(v);
+    }
+
+    public double getLatitude(int v) {
+        return offHeap == null ? latitude[v] : offHeap.latitude.get(v);
+    }
+
+    // Contraction order of v, 0 for the first contracted vertex
+    public int getRank(int v) {
+        return offHeap == null ? rank[v] : offHeap.rank.get(v);
+    }
+
+    // Upward edges of v are getUpStart(v) .. getUpEnd(v) - 1
+    public int getUpStart(int v) {
+        return offHeap == null ? firstUp[v] : offHeap.firstUp.get(v);
+    }
+
+    public int getUpEnd(int v) {
+        return offHeap == null ? firstUp[v + 1] : offHeap.firstUp.get(v + 1);
+    }
+
+    public int getUpTarget(int edge) {
+        return offHeap == null ? upTarget[edge] : offHeap.upTarget.get(edge);
+    }
+
+    public int getUpCost(int edge) {
+        return offHeap == null ? upCost[edge] : offHeap.upCost.get(edge);
+    }
+
+    // Bypassed vertex of an upward shortcut, or -1 for an original edge
+    public int getUpMiddle(int edge) {
+        return offHeap == null ? upMiddle[edge] : offHeap.upMiddle.get(edge);
+    }
+
+    // Downward edges ending in v are getDownStart(v) .. getDownEnd(v) - 1
+    public int getDownStart(int v) {
+        return offHeap == null ? firstDown[v] : offHeap.firstDown.get(v);
+    }
+
+    public int getDownEnd(int v) {
+        return offHeap == null ? firstDown[v + 1] : offHeap.firstDown.get(v + 1);
+    }
+
+    public int getDownSource(int edge) {
+        return offHeap == null ? downSource[edge] : offHeap.downSource.get(edge);
+    }
+
+    public int getDownCost(int edge) {
+        return offHeap == null ? downCost[edge] : offHeap.downCost.get(edge);
+    }
+
+    public int getDownMiddle(int edge) {
+        return offHeap == null ? downMiddle[edge] : offHeap.downMiddle.get(edge);
+    }
+
+    // Cheapest hierarchy edge between a and b as an index into the upward edges of the
+    // lower-ranked endpoint, or -1 if they are not adjacent
+    public int findEdge(int a, int b) {
+        int lower = getRank(a) < getRank(b) ? a : b;
+        int higher = lower == a ? b : a;
+        int best = -1;
+        for (int e = getUpStart(lower); e < getUpEnd(lower); e++) {
+            if (getUpTarget(e) == higher && (best < 0 || getUpCost(e) < getUpCost(best))) {
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    // All hierarchy edges (original edges and shortcuts) as a plain CSR graph, for
+    // running ordinary searches over the augmented graph
+    public CSRGraph toCSRGraph() {
+        int m = getUpEdgeCount() + getDownEdgeCount();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] cost = new int[m];
+        int e = 0;
+        for (int v = 0; v < getVertexCount(); v++) {
+            for (int i = getUpStart(v); i < getUpEnd(v); i++) {
+                from[e] = v;
+                to[e] = getUpTarget(i);
+                cost[e++] = getUpCost(i);
+            }
+            for (int i = getDownStart(v); i < getDownEnd(v); i++) {
+                from[e] = getDownSource(i);
+                to[e] = v;
+                cost[e++] = getDownCost(i);
+            }
+        }
+        double[] lon = new double[getVertexCount()];
+        double[] lat = new double[getVertexCount()];
+        for (int v = 0; v < getVertexCount(); v++) {
+            lon[v] = getLongitude(v);
+            lat[v] = getLatitude(v);
+        }
+        return new CSRGraph(idMap, lon, lat, from, to, cost, m);
+    }
+}
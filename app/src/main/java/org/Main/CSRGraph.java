@@ -0,0 +1,269 @@
+package org.Main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Immutable compressed-sparse-row form of a Graph.
+// Vertices are numbered 0..n-1; the outgoing edges of vertex v are stored at
+// positions getEdgeStart(v)..getEdgeEnd(v)-1 of the target/cost arrays, and the
+// incoming edges are kept in a second (reverse) CSR for backward searches.
+// The arrays live on the Java heap; a graph created by OffHeapStorage has no heap arrays
+// and reads the same columns from offHeap instead.
+public class CSRGraph {
+    private final VertexIdMap idMap;
+    private final double[] longitude;
+    private final double[] latitude;
+
+    // Forward (outgoing) edges
+    private final int[] firstOut;
+    private final int[] target;
+    private final int[] cost;
+
+    // Reverse (incoming) edges
+    private final int[] firstIn;
+    private final int[] source;
+    private final int[] inCost;
+
+    // Null for heap graphs
+    private final OffHeapStorage.GraphArrays offHeap;
+
+    // edgeFrom/edgeTo/edgeCost hold the edge list in dense indices
+    CSRGraph(VertexIdMap idMap, double[] longitude, double[] latitude, int[] edgeFrom, int[] edgeTo, int[] edgeCost, int edgeCount) {
+        int n = idMap.size();
+        int[] firstOut = new int[n + 1];
+        int[] target = new int[edgeCount];
+        int[] cost = new int[edgeCount];
+        int[] firstIn = new int[n + 1];
+        int[] source = new int[edgeCount];
+        int[] inCost = new int[edgeCount];
+
+        // Counting sort of the edge list by tail (forward) and head (reverse)
+        for (int e = 0; e < edgeCount; e++) {
+            firstOut[edgeFrom[e] + 1]++;
+            firstIn[edgeTo[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            firstOut[v + 1] += firstOut[v];
+            firstIn[v + 1] += firstIn[v];
+        }
+        int[] nextOut = Arrays.copyOf(firstOut, n);
+        int[] nextIn = Arrays.copyOf(firstIn, n);
+        for (int e = 0; e < edgeCount; e++) {
+            int from = edgeFrom[e];
+            int to = edgeTo[e];
+            int out = nextOut[from]++;
+            target[out] = to;
+            cost[out] = edgeCost[e];
+            int in = nextIn[to]++;
+            source[in] = from;
+            inCost[in] = edgeCost[e];
+        }
+
+        this.idMap = idMap;
+        this.longitude = longitude;
+        this.latitude = latitude;
+        this.firstOut = firstOut;
+        this.target = target;
+        this.cost = cost;
+        this.firstIn = firstIn;
+        this.source = source;
+        this.inCost = inCost;
+        this.offHeap = null;
+    }
+
+    // Wrap already built CSR arrays, e.g. from a snapshot file
+    CSRGraph(VertexIdMap idMap, double[] longitude, double[] latitude, int[] firstOut, int[] target, int[] cost,
+             int[] firstIn, int[] source, int[] inCost) {
+        this.idMap = idMap;
+        this.longitude = longitude;
+        this.latitude = latitude;
+        this.firstOut = firstOut;
+        this.target = target;
+        this.cost = cost;
+        this.firstIn = firstIn;
+        this.source = source;
+        this.inCost = inCost;
+        this.offHeap = null;
+    }
+
+    // CSR arrays outside the heap, created by OffHeapStorage
+    CSRGraph(VertexIdMap idMap, OffHeapStorage.GraphArrays offHeap) {
+        this.idMap = idMap;
+        this.longitude = null;
+        this.latitude = null;
+        this.firstOut = null;
+        this.target = null;
+        this.cost = null;
+        this.firstIn = null;
+        this.source = null;
+        this.inCost = null;
+        this.offHeap = offHeap;
+    }
+
+    // Build the CSR form of an existing Graph, numbering vertices by ascending id
+    public static CSRGraph fromGraph(Graph graph) {
+        Map<Long, Vertex> vertices = graph.getVertices();
+        long[] ids = new long[vertices.size()];
+        int i = 0;
+        for (long id : vertices.keySet()) {
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+
+        VertexIdMap idMap = VertexIdMap.of(ids);
+        double[] longitude = new double[ids.length];
+        double[] latitude = new double[ids.length];
+        for (i = 0; i < ids.length; i++) {
+            Vertex vertex = vertices.get(ids[i]);
+            longitude[i] = vertex.getLongitude();
+            latitude[i] = vertex.getLatitude();
+        }
+
+        int m = 0;
+        for (List<Edge> edges : graph.getAdjacencyList().values()) {
+            m += edges.size();
+        }
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] cost = new int[m];
+        int edgeCount = 0;
+        for (Map.Entry<Long, List<Edge>> entry : graph.getAdjacencyList().entrySet()) {
+            int u = idMap.getIndex(entry.getKey());
+            if (u < 0) continue; // Vertex was removed
+            for (Edge edge : entry.getValue()) {
+                int v = idMap.getIndex(edge.getTo());
+                if (v < 0) continue;
+                from[edgeCount] = u;
+                to[edgeCount] = v;
+                cost[edgeCount] = edge.getCost();
+                edgeCount++;
+            }
+        }
+
+        return new CSRGraph(idMap, longitude, latitude, from, to, cost, edgeCount);
+    }
+
+    // Rebuild the object graph from the forward edges, for the algorithms that work on Graph
+    public Graph toGraph() {
+        Graph graph = new Graph();
+        for (int v = 0; v < getVertexCount(); v++) {
+            graph.addVertex(getId(v), getLongitude(v), getLatitude(v));
+        }
+        for (int v = 0; v < getVertexCount(); v++) {
+            for (int e = getEdgeStart(v); e < getEdgeEnd(v); e++) {
+                graph.addEdge(getId(v), getId(getTarget(e)), getCost(e));
+            }
+        }
+        return graph;
+    }
+
+    // Read the same text format as Graph.readGraphFromInput without building Vertex/Edge objects
+    public static CSRGraph readGraphFromInput(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input));
+        String[] firstLine = reader.readLine().split(" ");
+        int n = Integer.parseInt(firstLine[0]);
+        int m = Integer.parseInt(firstLine[1]);
+
+        VertexIdMap idMap = new VertexIdMap(n);
+        double[] longitude = new double[n];
+        double[] latitude = new double[n];
+
+        // Read vertices, numbered in input order
+        for (int i = 0; i < n; i++) {
+            String[] vertexLine = reader.readLine().split(" ");
+            int v = idMap.add(Long.parseLong(vertexLine[0]));
+            longitude[v] = Double.parseDouble(vertexLine[1]);
+            latitude[v] = Double.parseDouble(vertexLine[2]);
+        }
+
+        // Read edges
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] cost = new int[m];
+        for (int i = 0; i < m; i++) {
+            String[] edgeLine = reader.readLine().split(" ");
+            from[i] = vertexIndex(idMap, Long.parseLong(edgeLine[0]));
+            to[i] = vertexIndex(idMap, Long.parseLong(edgeLine[1]));
+            cost[i] = Integer.parseInt(edgeLine[2]);
+        }
+
+        return new CSRGraph(idMap, longitude, latitude, from, to, cost, m);
+    }
+
+    private static int vertexIndex(VertexIdMap idMap, long id) throws IOException {
+        int index = idMap.getIndex(id);
+        if (index < 0) {
+            throw new IOException("Edge refers to unknown vertex " + id);
+        }
+        return index;
+    }
+
+    public int getVertexCount() {
+        return idMap.size();
+    }
+
+    public int getEdgeCount() {
+        return offHeap == null ? target.length : offHeap.target.length();
+    }
+
+    // Dense index of an external vertex id, or -1 if the vertex is unknown
+    public int getIndex(long id) {
+        return idMap.getIndex(id);
+    }
+
+    // External vertex id of a dense index
+    public long getId(int index) {
+        return idMap.getId(index);
+    }
+
+    public VertexIdMap getIdMap() {
+        return idMap;
+    }
+
+    public double getLongitude(int v) {
+        return offHeap == null ? longitude[v] : offHeap.longitude.get(v);
+    }
+
+    public double getLatitude(int v) {
+        return offHeap == null ? latitude[v] : offHeap.latitude.get(v);
+    }
+
+    // Outgoing edges of v are getEdgeStart(v) .. getEdgeEnd(v) - 1
+    public int getEdgeStart(int v) {
+        return offHeap == null ? firstOut[v] : offHeap.firstOut.get(v);
+    }
+
+    public int getEdgeEnd(int v) {
+        return offHeap == null ? firstOut[v + 1] : offHeap.firstOut.get(v + 1);
+    }
+
+    public int getTarget(int edge) {
+        return offHeap == null ? target[edge] : offHeap.target.get(edge);
+    }
+
+    public int getCost(int edge) {
+        return offHeap == null ? cost[edge] : offHeap.cost.get(edge);
+    }
+
+    // Incoming edges of v are getInEdgeStart(v) .. getInEdgeEnd(v) - 1
+    public int getInEdgeStart(int v) {
+        return offHeap == null ? firstIn[v] : offHeap.firstIn.get(v);
+    }
+
+    public int getInEdgeEnd(int v) {
+        return offHeap == null ? firstIn[v + 1] : offHeap.firstIn.get(v + 1);
+    }
+
+    public int getSource(int edge) {
+        return offHeap == null ? source[edge] : offHeap.source.get(edge);
+    }
+
+    public int getInCost(int edge) {
+        return offHeap == null ? inCost[edge] : offHeap.inCost.get(edge);
+    }
+}
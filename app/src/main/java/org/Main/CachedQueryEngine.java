@@ -0,0 +1,210 @@
+package org.Main;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Bounded result cache in front of any query engine. Entries are spread over lock-striped
+// shards by the hash of (source, target); each shard keeps its entries in primitive arrays,
+// finds them through an open-addressing index and evicts with the CLOCK algorithm, which
+// approximates LRU without reordering anything on a hit. When the version supplied for the
+// underlying graph changes, every shard drops its entries on next use.
+//
+// Hits are answered without running a search and report 0 relaxed edges.
+public class CachedQueryEngine implements QueryEngine {
+    private final QueryEngine engine;
+    private final LongSupplier version;
+    private final Shard[] shards;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachedQueryEngine(QueryEngine engine, int capacity) {
+        this(engine, capacity, 16, () -> 0L);
+    }
+
+    // capacity is the total number of cached results, split evenly over shardCount shards
+    // (rounded up to a power of two); version is read on every lookup
+    public CachedQueryEngine(QueryEngine engine, int capacity, int shardCount, LongSupplier version) {
+        if (capacity < 1 || shardCount < 1) {
+            throw new IllegalArgumentException("Capacity and shard count must be positive");
+        }
+        this.engine = engine;
+        this.version = version;
+        this.shards = new Shard[1 << (32 - Integer.numberOfLeadingZeros(shardCount - 1))];
+        int perShard = Math.max(1, (capacity + shards.length - 1) / shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(perShard, version.getAsLong());
+        }
+    }
+
+    @Override
+    public QueryResult query(long source, long target, QueryWorkspace workspace) {
+        long hash = hash(source, target);
+        // High bits pick the shard, low bits the position in its index
+        Shard shard = shards[(int) (hash >>> 40) & (shards.length - 1)];
+        long currentVersion = version.getAsLong();
+
+        synchronized (shard) {
+            shard.checkVersion(currentVersion);
+            int slot = shard.find(source, target, hash);
+            if (slot >= 0) {
+                shard.referenced[slot] = true;
+                hits.increment();
+                return new QueryResult(shard.distances[slot], 0);
+            }
+        }
+
+        misses.increment();
+        QueryResult result = engine.query(source, target, workspace);
+        synchronized (shard) {
+            // Results computed against an older version are not stored
+            if (shard.checkVersion(version.getAsLong()) == currentVersion) {
+                shard.put(source, target, hash, result.getShortestPath());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public QueryWorkspace newWorkspace() {
+        return engine.newWorkspace();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long total = getHits() + getMisses();
+        return total == 0 ? 0 : getHits() / (double) total;
+    }
+
+    // Number of cached results over all shards
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size;
+            }
+        }
+        return size;
+    }
+
+    public void invalidateAll() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.clear();
+            }
+        }
+    }
+
+    private static long hash(long source, long target) {
+        long h = source * 0x9E3779B97F4A7C15L + target;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // Fixed-size slots plus a linear-probing index from key to slot. Guarded by the shard's monitor.
+    private static class Shard {
+        private final long[] sources;
+        private final long[] targets;
+        private final long[] distances;
+        private final boolean[] referenced;
+        private final int[] indexOf;   // slot -> position in index
+        private final int[] index;     // slot + 1, or 0 for an empty position
+        private final int mask;
+        private int size;
+        private int hand;
+        private long version;
+
+        Shard(int capacity, long version) {
+            sources = new long[capacity];
+            targets = new long[capacity];
+            distances = new long[capacity];
+            referenced = new boolean[capacity];
+            indexOf = new int[capacity];
+            index = new int[Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1];
+            mask = index.length - 1;
+            this.version = version;
+        }
+
+        // Drop all entries if the version moved on; returns the version now cached
+        long checkVersion(long current) {
+            if (current != version) {
+                clear();
+                version = current;
+            }
+            return version;
+        }
+
+        void clear() {
+            Arrays.fill(index, 0);
+            Arrays.fill(referenced, false);
+            size = 0;
+            hand = 0;
+        }
+
+        int find(long source, long target, long hash) {
+            for (int pos = (int) hash & mask; index[pos] != 0; pos = (pos + 1) & mask) {
+                int slot = index[pos] - 1;
+                if (sources[slot] == source && targets[slot] == target) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        void put(long source, long target, long hash, long distance) {
+            int slot = find(source, target, hash);
+            if (slot < 0) {
+                slot = size < sources.length ? size++ : evict();
+                sources[slot] = source;
+                targets[slot] = target;
+                int pos = (int) hash & mask;
+                while (index[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+                index[pos] = slot + 1;
+                indexOf[slot] = pos;
+            }
+            distances[slot] = distance;
+            referenced[slot] = true;
+        }
+
+        // CLOCK: give referenced entries a second chance, evict the first unreferenced one
+        private int evict() {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % sources.length;
+            }
+            int victim = hand;
+            hand = (hand + 1) % sources.length;
+            removeFromIndex(indexOf[victim]);
+            return victim;
+        }
+
+        // Backward-shift deletion keeps probe sequences intact without tombstones
+        private void removeFromIndex(int pos) {
+            index[pos] = 0;
+            for (int next = (pos + 1) & mask; index[next] != 0; next = (next + 1) & mask) {
+                int slot = index[next] - 1;
+                int home = (int) hash(sources[slot], targets[slot]) & mask;
+                // Move the entry into the hole if its home position is not between hole and next
+                if (((next - home) & mask) >= ((next - pos) & mask)) {
+                    index[pos] = slot + 1;
+                    indexOf[slot] = pos;
+                    index[next] = 0;
+                    pos = next;
+                }
+            }
+        }
+    }
+}
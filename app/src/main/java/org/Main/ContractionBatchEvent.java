@@ -0,0 +1,41 @@
+package org.Main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Flight recorder event covering one round of parallel contraction, or a block of
+// consecutive vertices in sequential contraction.
+@Name("org.Main.ContractionBatch")
+@Label("Contraction Batch")
+@Category({"Routing", "Contraction"})
+@StackTrace(false)
+public class ContractionBatchEvent extends Event {
+    @Label("Round")
+    int round;
+
+    @Label("Vertices Contracted")
+    int verticesContracted;
+
+    @Label("Shortcuts Added")
+    int shortcutsAdded;
+
+    @Label("Shortcuts Avoided")
+    @Description("Shortcuts made unnecessary by a witness path")
+    int shortcutsAvoided;
+
+    @Label("Queue Size")
+    @Description("Vertices still waiting to be contracted after this batch")
+    int queueSize;
+
+    @Label("Priority Updates")
+    int priorityUpdates;
+
+    @Label("Priority Update Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long priorityUpdateNanos;
+}
@@ -4,97 +4,345 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public class ContractionHierarchy {
     private Graph graph;
     private List<Vertex> vertexOrder;
     private Set<Vertex> contractedVertices;
     private Map<Vertex, Integer> rankMap;
-    private List<Edge> allEdges;
-    private int updateThreshold = 50;
+    private Set<Edge> allEdges;
     private int totalShortcutsAdded = 0;
+    private int totalShortcutsAvoided = 0;
+
+    // Dense numbering of the vertices for the priority queue and witness searches
+    private VertexIdMap indexMap;
+    private Vertex[] vertexByIndex;
+
+    // Working adjacency by index: copies of the edges of every vertex, followed by the
+    // shortcuts added so far. Contraction and cost updates only change these copies, so the
+    // input graph is never modified.
+    private List<List<Edge>> adjacency;
+    private int[] inputEdgeCount;
+
+    // Rank by index as in rankMap, or Integer.MAX_VALUE while the vertex is not contracted
+    private int[] rankByIndex;
+
+    // What each contraction depended on, for updateEdgeCosts: the shortcuts it added, the
+    // number it avoided and the vertices its witness searches settled (sorted). settledBy is
+    // the inverse of witnessSettled and is only built by the first repair.
+    private List<List<Edge>> shortcutsByMiddle;
+    private int[] avoidedByVertex;
+    private int[][] witnessSettled;
+    private int[][] settledBy;
+    private int[] settledByCount;
+
+    // Witness searches stop after this many hops or settled vertices
+    private int witnessHopLimit = 5;
+    private int witnessSettledLimit = 1000;
+    private WitnessSearch witness;
+
+    // Priority terms kept per vertex and updated as its neighbours are contracted
+    private static final int PRIORITY_SCALE = 1000;
+
+    // Sequential contraction reports one ContractionBatchEvent per this many vertices
+    private static final int EVENT_BLOCK_SIZE = 1024;
+    private int[] deletedNeighbors;
+    private int[] depth;
 
     public ContractionHierarchy(Graph graph) {
         this.graph = graph;
         this.vertexOrder = new ArrayList<>();
         this.contractedVertices = new HashSet<>();
         this.rankMap = new HashMap<>();
-        this.allEdges = new ArrayList<>();
+        this.allEdges = new LinkedHashSet<>();
+
+        int n = graph.getVertices().size();
+        this.indexMap = new VertexIdMap(n);
+        this.vertexByIndex = new Vertex[n];
+        this.adjacency = new ArrayList<>(n);
+        this.inputEdgeCount = new int[n];
+        for (Vertex v : graph.getVertices().values()) {
+            int index = indexMap.add(v.getId());
+            vertexByIndex[index] = v;
+            List<Edge> edges = new ArrayList<>(v.getEdges().size());
+            for (Edge edge : v.getEdges()) {
+                edges.add(edge.isShortcut()
+                        ? new Edge(edge.getFrom(), edge.getTo(), edge.getCost(), edge.getMiddle(), edge.getOriginalEdgeCount())
+                        : new Edge(edge.getFrom(), edge.getTo(), edge.getCost()));
+            }
+            adjacency.add(edges);
+            inputEdgeCount[index] = edges.size();
+        }
+        this.witness = new WitnessSearch(n);
+        this.deletedNeighbors = new int[n];
+        this.depth = new int[n];
+
+        this.rankByIndex = new int[n];
+        Arrays.fill(rankByIndex, Integer.MAX_VALUE);
+        this.shortcutsByMiddle = new ArrayList<>(Collections.nCopies(n, Collections.emptyList()));
+        this.avoidedByVertex = new int[n];
+        this.witnessSettled = new int[n][];
     }
 
     public void preprocess() {
-        PriorityQueue<Vertex> priorityQueue = new PriorityQueue<>(Comparator.comparingInt(v -> this.getNodePriority(v)));
-
-        Set<Vertex> dirtyVertices = new HashSet<>();
-        int updateCount = 0;
+        int n = vertexByIndex.length;
+        IndexedHeap priorityQueue = new IndexedHeap(n);
 
         // Initialize priority queue
-        for (Vertex v : graph.getVertices().values()) {
-            if (!contractedVertices.contains(v)) {
-                priorityQueue.add(v);
+        for (int i = 0; i < n; i++) {
+            if (!contractedVertices.contains(vertexByIndex[i])) {
+                priorityQueue.push(i, getNodePriority(vertexByIndex[i]));
             }
         }
 
         System.out.println("Preprocessing started. Total vertices: " + graph.getVertices().size());
         System.out.println("Preprocessing started. Total edges: " + graph.getEdges().size());
 
+        // Flight recorder events cover blocks of consecutive contractions
+        ContractionBatchEvent event = new ContractionBatchEvent();
+        event.begin();
+        int rounds = 0;
+
         while (!priorityQueue.isEmpty() && contractedVertices.size() < graph.getVertices().size()) {
-            Vertex v = priorityQueue.poll();
+            Vertex v = vertexByIndex[priorityQueue.poll()];
 
             // Skip already-contracted vertices
             if (contractedVertices.contains(v)) continue;
 
             // Add vertex to contraction order and mark as contracted
-            vertexOrder.add(v);
-            contractedVertices.add(v);
-            rankMap.put(v, vertexOrder.size());
+            assignRank(v);
 
+            int avoidedBefore = totalShortcutsAvoided;
             int shortcutsAdded = contractVertex(v);
             totalShortcutsAdded += shortcutsAdded;
 
-            // Update neighbors
-            for (Edge e : v.getEdges()) {
-                Vertex neighbor = graph.getVertexById(e.getTo());
-                if (!contractedVertices.contains(neighbor)) {
-                    dirtyVertices.add(neighbor);
-                }
+            // Only the neighbours of v can change priority
+            long updateStart = event.isEnabled() ? System.nanoTime() : 0;
+            Collection<Vertex> neighbors = updateNeighborTerms(v);
+            for (Vertex neighbor : neighbors) {
+                priorityQueue.push(indexMap.getIndex(neighbor.getId()), getNodePriority(neighbor, witness));
+            }
+
+            event.verticesContracted++;
+            event.shortcutsAdded += shortcutsAdded;
+            event.shortcutsAvoided += totalShortcutsAvoided - avoidedBefore;
+            event.priorityUpdates += neighbors.size();
+            if (event.isEnabled()) {
+                event.priorityUpdateNanos += System.nanoTime() - updateStart;
             }
+            if (event.verticesContracted == EVENT_BLOCK_SIZE) {
+                commitBatchEvent(event, rounds++);
+                event = new ContractionBatchEvent();
+                event.begin();
+            }
+        }
+        if (event.verticesContracted > 0) {
+            commitBatchEvent(event, rounds);
+        }
+
+        System.out.println("Preprocessing complete. Total shortcuts added: " + totalShortcutsAdded
+                + ", avoided by witness search: " + totalShortcutsAvoided);
+    }
+
+    // Contract the graph in rounds of independent vertices: no two selected vertices are
+    // adjacent and each has a locally minimal priority, so a round can be contracted
+    // concurrently. Shortcuts are merged in contraction order, which keeps the result
+    // independent of thread scheduling.
+    public void preprocessParallel(int threads) {
+        int n = vertexByIndex.length;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ThreadLocal<WitnessSearch> witnesses = ThreadLocal.withInitial(() -> new WitnessSearch(n));
+        long[] priority = new long[n];
+        boolean[] touched = new boolean[n];
 
-            // Lazy updates
-            updateCount++;
-            if (updateCount >= updateThreshold) {
-                for (Vertex dirtyVertex : dirtyVertices) {
-                    if (!contractedVertices.contains(dirtyVertex)) {
-                        priorityQueue.remove(dirtyVertex);
-                        priorityQueue.add(dirtyVertex);
+        int[] remaining = IntStream.range(0, n)
+                .filter(i -> !contractedVertices.contains(vertexByIndex[i]))
+                .toArray();
+        int[] initial = remaining;
+        runParallel(pool, initial.length, i -> priority[initial[i]] = getNodePriority(vertexByIndex[initial[i]], witnesses.get()));
+
+        System.out.println("Parallel preprocessing started with " + threads + " threads. Total vertices: " + n);
+        int rounds = 0;
+
+        try {
+            while (remaining.length > 0) {
+                ContractionBatchEvent event = new ContractionBatchEvent();
+                event.begin();
+                int[] candidates = remaining;
+                boolean[] selected = new boolean[candidates.length];
+                runParallel(pool, candidates.length, i -> selected[i] = isLocalMinimum(candidates[i], priority));
+
+                Integer[] batch = IntStream.range(0, candidates.length)
+                        .filter(i -> selected[i])
+                        .mapToObj(i -> candidates[i])
+                        .sorted(Comparator.<Integer>comparingLong(v -> priority[v]).thenComparingInt(v -> v))
+                        .toArray(Integer[]::new);
+
+                // Ranks are assigned up front so that every witness search of this round
+                // avoids all vertices being contracted in it
+                for (int v : batch) {
+                    assignRank(vertexByIndex[v]);
+                }
+                int hideRank = vertexOrder.size();
+
+                // Find the shortcuts concurrently, each thread with its own witness search
+                List<List<Edge>> shortcuts = new ArrayList<>(Collections.nCopies(batch.length, null));
+                int[] avoided = new int[batch.length];
+                int[][] settled = new int[batch.length][];
+                runParallel(pool, batch.length, i -> {
+                    List<Edge> found = new ArrayList<>();
+                    Vertex v = vertexByIndex[batch[i]];
+                    WitnessSearch witness = witnesses.get();
+                    witness.startRecording();
+                    avoided[i] = findShortcuts(v, getRemainingNeighbors(v), witness, found, hideRank);
+                    settled[i] = witness.stopRecording();
+                    shortcuts.set(i, found);
+                });
+
+                // Merge in contraction order and collect the neighbours whose priority changes
+                List<Integer> neighbors = new ArrayList<>();
+                for (int i = 0; i < batch.length; i++) {
+                    applyShortcuts(shortcuts.get(i));
+                    recordContraction(batch[i], shortcuts.get(i), avoided[i], settled[i]);
+                    totalShortcutsAdded += shortcuts.get(i).size();
+                    totalShortcutsAvoided += avoided[i];
+
+                    for (Vertex neighbor : updateNeighborTerms(vertexByIndex[batch[i]])) {
+                        int u = indexMap.getIndex(neighbor.getId());
+                        if (!touched[u]) {
+                            touched[u] = true;
+                            neighbors.add(u);
+                        }
                     }
                 }
-                updateCount = 0;
-                dirtyVertices.clear();
+                long updateStart = System.nanoTime();
+                runParallel(pool, neighbors.size(), i -> {
+                    int u = neighbors.get(i);
+                    priority[u] = getNodePriority(vertexByIndex[u], witnesses.get());
+                });
+                long updateNanos = System.nanoTime() - updateStart;
+                for (int u : neighbors) {
+                    touched[u] = false;
+                }
+
+                remaining = Arrays.stream(candidates)
+                        .filter(v -> !contractedVertices.contains(vertexByIndex[v]))
+                        .toArray();
+
+                event.verticesContracted = batch.length;
+                event.shortcutsAdded = shortcuts.stream().mapToInt(List::size).sum();
+                event.shortcutsAvoided = Arrays.stream(avoided).sum();
+                event.priorityUpdates = neighbors.size();
+                event.priorityUpdateNanos = updateNanos;
+                commitBatchEvent(event, rounds++);
             }
+        } finally {
+            pool.shutdown();
         }
 
-        System.out.println("Preprocessing complete. Total shortcuts added: " + totalShortcutsAdded);
+        System.out.println("Parallel preprocessing complete in " + rounds + " rounds. Total shortcuts added: "
+                + totalShortcutsAdded + ", avoided by witness search: " + totalShortcutsAvoided);
+    }
+
+    private void assignRank(Vertex v) {
+        vertexOrder.add(v);
+        contractedVertices.add(v);
+        rankMap.put(v, vertexOrder.size());
+        rankByIndex[indexMap.getIndex(v.getId())] = vertexOrder.size();
+    }
+
+    private void commitBatchEvent(ContractionBatchEvent event, int round) {
+        if (event.shouldCommit()) {
+            event.round = round;
+            event.queueSize = vertexByIndex.length - contractedVertices.size();
+            event.commit();
+        }
+    }
+
+    // True if v has a smaller (priority, index) than all of its remaining neighbours
+    private boolean isLocalMinimum(int v, long[] priority) {
+        for (Edge e : adjacency.get(v)) {
+            int u = indexMap.getIndex(e.getTo());
+            if (u == v || contractedVertices.contains(vertexByIndex[u])) continue;
+            if (priority[u] < priority[v] || (priority[u] == priority[v] && u < v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void runParallel(ForkJoinPool pool, int count, IntConsumer body) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Contraction was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Contraction failed", e.getCause());
+        }
     }
 
     public int getNodePriority(Vertex v) {
-        int edgeDiff = getEdgeDifference(v);
-        int deletedNeighbors = getDeletedNeighbors(v);
-        return (int) (edgeDiff + 0.75 * deletedNeighbors);
+        return getNodePriority(v, witness);
     }
 
-    private int getEdgeDifference(Vertex v) {
-        Set<Edge> activeEdges = v.getActiveEdges();
-        int contractedNeighbors = (int) v.getEdges().stream()
-                .filter(e -> contractedVertices.contains(graph.getVertexById(e.getTo())))
-                .count();
-        return activeEdges.size() + contractedNeighbors;
+    // Priority from a simulated contraction of v. The edge difference is taken as the quotient
+    // of shortcuts added per edge removed, and the original-edge count as the quotient of input
+    // edges the shortcuts stand for per input edge removed, so both stay comparable between
+    // sparse and dense regions. Deleted neighbours and depth spread contraction evenly.
+    private int getNodePriority(Vertex v, WitnessSearch witness) {
+        Map<Vertex, Edge> neighbors = getRemainingNeighbors(v);
+        List<Edge> shortcuts = new ArrayList<>();
+        findShortcuts(v, neighbors, witness, shortcuts, vertexOrder.size());
+
+        int removedOriginal = 0;
+        for (Edge edge : neighbors.values()) {
+            removedOriginal += edge.getOriginalEdgeCount();
+        }
+        int addedOriginal = 0;
+        for (Edge shortcut : shortcuts) {
+            addedOriginal += shortcut.getOriginalEdgeCount();
+        }
+
+        int edgeQuotient = PRIORITY_SCALE * shortcuts.size() / Math.max(1, neighbors.size());
+        int originalQuotient = PRIORITY_SCALE * addedOriginal / Math.max(1, removedOriginal);
+        int index = indexMap.getIndex(v.getId());
+        return 2 * edgeQuotient + originalQuotient
+                + PRIORITY_SCALE * depth[index] + PRIORITY_SCALE / 2 * deletedNeighbors[index];
+    }
+
+    // Count v as a deleted neighbour of every remaining neighbour and push their depth below
+    // v's. Returns those neighbours, the only vertices whose priority changed.
+    private Collection<Vertex> updateNeighborTerms(Vertex v) {
+        int index = indexMap.getIndex(v.getId());
+        Collection<Vertex> neighbors = getRemainingNeighbors(v).keySet();
+        for (Vertex neighbor : neighbors) {
+            int u = indexMap.getIndex(neighbor.getId());
+            deletedNeighbors[u]++;
+            depth[u] = Math.max(depth[u], depth[index] + 1);
+        }
+        return neighbors;
+    }
+
+    // Cheapest edge to every neighbour that is not contracted yet
+    private Map<Vertex, Edge> getRemainingNeighbors(Vertex v) {
+        return getNeighborsAbove(indexMap.getIndex(v.getId()), vertexOrder.size());
     }
 
-    private int getDeletedNeighbors(Vertex v) {
-        return (int) v.getEdges().stream()
-                .filter(e -> contractedVertices.contains(graph.getVertexById(e.getTo())))
-                .count();
+    // Cheapest edge to every neighbour ranked above hideRank, in id order for reproducible output
+    private Map<Vertex, Edge> getNeighborsAbove(int v, int hideRank) {
+        Map<Vertex, Edge> neighbors = new TreeMap<>(Comparator.comparingLong(Vertex::getId));
+        for (Edge edge : adjacency.get(v)) {
+            int u = indexMap.getIndex(edge.getTo());
+            if (u != v && rankByIndex[u] > hideRank) {
+                neighbors.merge(vertexByIndex[u], edge, (a, b) -> b.getCost() < a.getCost() ? b : a);
+            }
+        }
+        return neighbors;
     }
 
     
@@ -106,6 +354,266 @@ public class ContractionHierarchy {
         return totalShortcutsAdded;
     }
 
+    // Shortcuts not added because the witness search found a path at most as short
+    public int getTotalShortcutsAvoided() {
+        return totalShortcutsAvoided;
+    }
+
+    public int getWitnessHopLimit() {
+        return witnessHopLimit;
+    }
+
+    public void setWitnessHopLimit(int witnessHopLimit) {
+        this.witnessHopLimit = witnessHopLimit;
+    }
+
+    public int getWitnessSettledLimit() {
+        return witnessSettledLimit;
+    }
+
+    public void setWitnessSettledLimit(int witnessSettledLimit) {
+        this.witnessSettledLimit = witnessSettledLimit;
+    }
+
+    public RepairResult updateEdgeCost(long from, long to, int cost) {
+        return updateEdgeCosts(new long[] {from}, new long[] {to}, new int[] {cost});
+    }
+
+    // Change the cost of some input edges, in both directions like Graph.updateEdgeCost, and
+    // repair the shortcuts for the new costs. Only the hierarchy's own copies of the edges
+    // change; call Graph.updateEdgeCost as well to keep the input graph in sync, and
+    // getCHGraph() again to query the new costs.
+    //
+    // The contraction of a vertex v depends on its edges to higher-ranked neighbours and on
+    // the witness paths that let it skip shortcuts, all of which run through vertices its
+    // witness searches settled. So a changed pair (a, b) only affects the lower endpoint and
+    // the vertices whose witness searches settled a or b. Those are contracted again in rank
+    // order, each against the hierarchy as it was at its turn, and every shortcut that comes
+    // out different makes its endpoints a changed pair in turn. Everything else, including
+    // the shortcuts of the vertices that are not affected, is left as it is.
+    public RepairResult updateEdgeCosts(long[] from, long[] to, int[] cost) {
+        if (vertexOrder.size() < vertexByIndex.length) {
+            throw new IllegalStateException("preprocess() must run before edge costs can be repaired");
+        }
+        if (from.length != to.length || from.length != cost.length) {
+            throw new IllegalArgumentException("Got " + from.length + " tails, " + to.length + " heads and "
+                    + cost.length + " costs");
+        }
+        long start = System.nanoTime();
+
+        // Check every edge first, so a bad update leaves the hierarchy unchanged
+        int[] tail = new int[from.length];
+        int[] head = new int[from.length];
+        for (int i = 0; i < from.length; i++) {
+            tail[i] = indexMap.getIndex(from[i]);
+            head[i] = indexMap.getIndex(to[i]);
+            if (tail[i] < 0 || head[i] < 0) {
+                throw new IllegalArgumentException("Unknown vertex in edge " + from[i] + " -> " + to[i]);
+            }
+            if (!hasInputEdge(tail[i], head[i]) && !hasInputEdge(head[i], tail[i])) {
+                throw new IllegalArgumentException("No edge " + from[i] + " -> " + to[i]);
+            }
+        }
+        if (settledBy == null) {
+            indexWitnessSettled();
+        }
+
+        // Vertices to contract again, lowest rank first
+        TreeSet<Integer> affected = new TreeSet<>(Comparator.comparingInt(v -> rankByIndex[v]));
+        for (int i = 0; i < from.length; i++) {
+            setInputCost(tail[i], head[i], cost[i]);
+            setInputCost(head[i], tail[i], cost[i]);
+            markChangedPair(tail[i], head[i], 0, affected);
+        }
+
+        RepairResult result = new RepairResult();
+        while (!affected.isEmpty()) {
+            recontractVertex(affected.pollFirst(), affected, result);
+        }
+        totalShortcutsAdded = allEdges.size();
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // The cheapest edge between a and b may have changed, through an input edge or through a
+    // shortcut that only exists above sinceRank. The lower endpoint has to be contracted again,
+    // and so has every vertex above sinceRank whose witness searches settled a or b while
+    // the pair was visible to them.
+    private void markChangedPair(int a, int b, int sinceRank, TreeSet<Integer> affected) {
+        affected.add(rankByIndex[a] < rankByIndex[b] ? a : b);
+        int below = Math.min(rankByIndex[a], rankByIndex[b]);
+        markSettledBy(a, sinceRank, below, affected);
+        markSettledBy(b, sinceRank, below, affected);
+    }
+
+    private void markSettledBy(int x, int sinceRank, int below, TreeSet<Integer> affected) {
+        int[] vertices = settledBy[x];
+        for (int i = 0; i < settledByCount[x]; i++) {
+            int v = vertices[i];
+            if (Arrays.binarySearch(witnessSettled[v], x) < 0) {
+                // v no longer settles x since it was contracted again
+                vertices[i--] = vertices[--settledByCount[x]];
+            } else if (rankByIndex[v] > sinceRank && rankByIndex[v] < below) {
+                affected.add(v);
+            }
+        }
+    }
+
+    // Contract v again with only the vertices ranked above it and the shortcuts bypassing
+    // vertices ranked below it, as when it was first contracted. Shortcuts that come out the
+    // same are kept as they are; the others are replaced or removed.
+    private void recontractVertex(int v, TreeSet<Integer> affected, RepairResult result) {
+        int rank = rankByIndex[v];
+        List<Edge> found = new ArrayList<>();
+        witness.startRecording();
+        int avoided = findShortcuts(vertexByIndex[v], getNeighborsAbove(v, rank), witness, found, rank);
+        int[] settled = witness.stopRecording();
+
+        // Both lists are ordered by the ids of their endpoints, as findShortcuts produces them
+        List<Edge> old = shortcutsByMiddle.get(v);
+        List<Edge> kept = new ArrayList<>(found.size()); // Shortcuts of v after the repair, in the same order
+        List<Edge> added = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < old.size() || j < found.size()) {
+            int order = i == old.size() ? 1 : j == found.size() ? -1 : compareEndpoints(old.get(i), found.get(j));
+            result.shortcutsChecked++;
+            if (order == 0 && old.get(i).getCost() == found.get(j).getCost()) {
+                kept.add(old.get(i++));
+                j++;
+                continue;
+            }
+            Edge changed = order <= 0 ? old.get(i) : found.get(j);
+            if (order <= 0) {
+                removeShortcut(old.get(i++));
+            }
+            if (order >= 0) {
+                added.add(found.get(j));
+                kept.add(found.get(j++));
+                result.shortcutsUpdated++;
+            } else {
+                result.shortcutsRemoved++;
+            }
+            markChangedPair(indexMap.getIndex(changed.getFrom()), indexMap.getIndex(changed.getTo()), rank, affected);
+        }
+        applyShortcuts(added);
+
+        totalShortcutsAvoided += avoided - avoidedByVertex[v];
+        for (int x : settled) {
+            if (Arrays.binarySearch(witnessSettled[v], x) < 0) {
+                addSettledBy(x, v);
+            }
+        }
+        recordContraction(v, kept, avoided, settled);
+        result.verticesRecontracted++;
+    }
+
+    private static int compareEndpoints(Edge a, Edge b) {
+        int order = Long.compare(a.getFrom(), b.getFrom());
+        return order != 0 ? order : Long.compare(a.getTo(), b.getTo());
+    }
+
+    // Remove both directions of a shortcut from the working adjacency
+    private void removeShortcut(Edge shortcut) {
+        adjacency.get(indexMap.getIndex(shortcut.getFrom())).remove(shortcut);
+        int to = indexMap.getIndex(shortcut.getTo());
+        List<Edge> edges = adjacency.get(to);
+        for (int i = inputEdgeCount[to]; i < edges.size(); i++) {
+            Edge edge = edges.get(i);
+            if (edge.getTo() == shortcut.getFrom() && edge.getMiddle() == shortcut.getMiddle()
+                    && edge.getCost() == shortcut.getCost()) {
+                edges.remove(i);
+                break;
+            }
+        }
+        allEdges.remove(shortcut);
+    }
+
+    // Invert witnessSettled once, on the first repair
+    private void indexWitnessSettled() {
+        int n = vertexByIndex.length;
+        settledBy = new int[n][];
+        settledByCount = new int[n];
+        for (int[] settled : witnessSettled) {
+            for (int x : settled) {
+                settledByCount[x]++;
+            }
+        }
+        for (int x = 0; x < n; x++) {
+            settledBy[x] = new int[settledByCount[x]];
+            settledByCount[x] = 0;
+        }
+        for (int v = 0; v < n; v++) {
+            for (int x : witnessSettled[v]) {
+                settledBy[x][settledByCount[x]++] = v;
+            }
+        }
+    }
+
+    private void addSettledBy(int x, int v) {
+        if (settledByCount[x] == settledBy[x].length) {
+            settledBy[x] = Arrays.copyOf(settledBy[x], Math.max(4, 2 * settledByCount[x]));
+        }
+        settledBy[x][settledByCount[x]++] = v;
+    }
+
+    private boolean hasInputEdge(int a, int b) {
+        List<Edge> edges = adjacency.get(a);
+        for (int i = 0; i < inputEdgeCount[a]; i++) {
+            if (edges.get(i).getTo() == vertexByIndex[b].getId() && !edges.get(i).isShortcut()) return true;
+        }
+        return false;
+    }
+
+    private void setInputCost(int a, int b, int cost) {
+        List<Edge> edges = adjacency.get(a);
+        for (int i = 0; i < inputEdgeCount[a]; i++) {
+            if (edges.get(i).getTo() == vertexByIndex[b].getId() && !edges.get(i).isShortcut()) {
+                edges.get(i).setCost(cost);
+            }
+        }
+    }
+
+    // Outcome of a shortcut repair after edge cost updates
+    public static class RepairResult {
+        private int verticesRecontracted;
+        private int shortcutsChecked;
+        private int shortcutsUpdated;
+        private int shortcutsRemoved;
+        private long elapsedNanos;
+
+        // Vertices whose contraction the changes could affect
+        public int getVerticesRecontracted() {
+            return verticesRecontracted;
+        }
+
+        // Shortcuts of the contracted vertices before or after the repair, whether or not they changed
+        public int getShortcutsChecked() {
+            return shortcutsChecked;
+        }
+
+        // Shortcuts that are new or whose cost changed
+        public int getShortcutsUpdated() {
+            return shortcutsUpdated;
+        }
+
+        // Shortcuts that are no longer needed
+        public int getShortcutsRemoved() {
+            return shortcutsRemoved;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return verticesRecontracted + " vertices contracted again, " + shortcutsUpdated + " of "
+                    + shortcutsChecked + " shortcuts updated, " + shortcutsRemoved + " removed in "
+                    + elapsedNanos / 1_000_000.0 + " ms";
+        }
+    }
+
     
     public Graph getAugmentedGraph() {
         Graph augmentedGraph = new Graph();
@@ -130,44 +638,221 @@ public class ContractionHierarchy {
 
         return augmentedGraph;
     }
-    private Set<String> shortcutSet = new HashSet<>();
+    // Compact query-side hierarchy: every original edge and shortcut, split into upward and
+    // downward edges by rank. Vertices are numbered by ascending id like CSRGraph.fromGraph.
+    public CHGraph getCHGraph() {
+        Map<Long, Vertex> vertices = graph.getVertices();
+        if (vertexOrder.size() < vertices.size()) {
+            throw new IllegalStateException("preprocess() must run before the hierarchy can be built");
+        }
+
+        long[] ids = new long[vertices.size()];
+        int i = 0;
+        for (long id : vertices.keySet()) {
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+        VertexIdMap idMap = VertexIdMap.of(ids);
+
+        int n = ids.length;
+        double[] longitude = new double[n];
+        double[] latitude = new double[n];
+        int[] rank = new int[n];
+        int edgeBound = 0;
+        for (i = 0; i < n; i++) {
+            Vertex vertex = vertices.get(ids[i]);
+            longitude[i] = vertex.getLongitude();
+            latitude[i] = vertex.getLatitude();
+            rank[i] = rankMap.get(vertex) - 1;
+            edgeBound += 2 * adjacency.get(indexMap.getIndex(ids[i])).size();
+        }
+
+        int[] from = new int[edgeBound];
+        int[] to = new int[edgeBound];
+        int[] cost = new int[edgeBound];
+        int[] middle = new int[edgeBound];
+        int edgeCount = 0;
+        for (int x = 0; x < n; x++) {
+            // Cheapest edge to every higher-ranked neighbour; the hierarchy is undirected,
+            // so it is stored both as an upward edge of x and as a downward edge into x
+            Map<Long, Edge> best = new HashMap<>();
+            for (Edge edge : adjacency.get(indexMap.getIndex(ids[x]))) {
+                int y = idMap.getIndex(edge.getTo());
+                if (y < 0 || rank[y] <= rank[x]) continue;
+                Edge current = best.get(edge.getTo());
+                if (current == null || edge.getCost() < current.getCost()) {
+                    best.put(edge.getTo(), edge);
+                }
+            }
+            for (Edge edge : best.values()) {
+                int y = idMap.getIndex(edge.getTo());
+                int mid = edge.isShortcut() ? idMap.getIndex(edge.getMiddle()) : -1;
+                from[edgeCount] = x;
+                to[edgeCount] = y;
+                cost[edgeCount] = edge.getCost();
+                middle[edgeCount++] = mid;
+                from[edgeCount] = y;
+                to[edgeCount] = x;
+                cost[edgeCount] = edge.getCost();
+                middle[edgeCount++] = mid;
+            }
+        }
+
+        return CHGraph.fromEdges(idMap, longitude, latitude, rank, from, to, cost, middle, edgeCount);
+    }
 
     public int contractVertex(Vertex v) {
-        int shortcutsAdded = 0;
-    
-        Map<Vertex, Integer> neighbors = new HashMap<>();
-        for (Edge edge : v.getEdges()) {
-            Vertex neighbor = graph.getVertexById(edge.getTo());
-            if (!contractedVertices.contains(neighbor)) {
-                neighbors.put(neighbor, edge.getCost());
+        List<Edge> shortcuts = new ArrayList<>();
+        witness.startRecording();
+        int avoided = findShortcuts(v, getRemainingNeighbors(v), witness, shortcuts, vertexOrder.size());
+        totalShortcutsAvoided += avoided;
+        applyShortcuts(shortcuts);
+        recordContraction(indexMap.getIndex(v.getId()), shortcuts, avoided, witness.stopRecording());
+        return shortcuts.size();
+    }
+
+    // Remember the shortcuts of a contraction and what it depended on
+    private void recordContraction(int v, List<Edge> shortcuts, int avoided, int[] settled) {
+        shortcutsByMiddle.set(v, shortcuts);
+        avoidedByVertex[v] = avoided;
+        witnessSettled[v] = settled;
+    }
+
+    // Collect the shortcuts needed to contract v without changing the graph, so it can run
+    // concurrently for independent vertices. The witness searches do not see vertices ranked
+    // at or below hideRank. Returns the number of shortcuts avoided.
+    private int findShortcuts(Vertex v, Map<Vertex, Edge> neighbors, WitnessSearch witness, List<Edge> shortcuts,
+                              int hideRank) {
+        int avoided = 0;
+        int excluded = indexMap.getIndex(v.getId());
+        List<Vertex> neighborList = new ArrayList<>(neighbors.keySet());
+
+        for (int i = 0; i < neighborList.size(); i++) {
+            Vertex u = neighborList.get(i);
+            Edge edgeU = neighbors.get(u);
+
+            // One witness search from u covers all pairs (u, w) with w after u; the last
+            // neighbour has no such pair. Zero-cost pairs still need their shortcut.
+            if (i == neighborList.size() - 1) continue;
+            long maxCost = 0;
+            for (int j = i + 1; j < neighborList.size(); j++) {
+                maxCost = Math.max(maxCost, edgeU.getCost() + neighbors.get(neighborList.get(j)).getCost());
+            }
+            witnessSearch(witness, indexMap.getIndex(u.getId()), excluded, maxCost, hideRank);
+
+            for (int j = i + 1; j < neighborList.size(); j++) {
+                Vertex w = neighborList.get(j);
+                Edge edgeW = neighbors.get(w);
+                int shortcutCost = edgeU.getCost() + edgeW.getCost();
+
+                // Skip the shortcut if some path avoiding v is at most as short
+                if (witness.space.getDistance(indexMap.getIndex(w.getId())) <= shortcutCost) {
+                    avoided++;
+                    continue;
+                }
+                shortcuts.add(new Edge(u.getId(), w.getId(), shortcutCost, v.getId(),
+                        edgeU.getOriginalEdgeCount() + edgeW.getOriginalEdgeCount()));
             }
         }
-    
-        for (Vertex u : neighbors.keySet()) {
-            for (Vertex w : neighbors.keySet()) {
-                if (!u.equals(w)) {
-                    int shortcutCost = neighbors.get(u) + neighbors.get(w);
-    
-                    // Create a unique identifier for the shortcut
-                    String shortcutId = Math.min(u.getId(), w.getId()) + ":" + Math.max(u.getId(), w.getId());
-    
-                    // Check if shortcut already exists
-                    if (!shortcutSet.contains(shortcutId)) {
-                        boolean hasEdge = graph.hasEdge(u.getId(), w.getId());
-                        int existingEdgeCost = hasEdge ? graph.getEdgeCost(u.getId(), w.getId()) : -1;
-    
-                        if (!hasEdge || existingEdgeCost > shortcutCost) {
-                            graph.addEdge(u.getId(), w.getId(), shortcutCost);
-                            allEdges.add(new Edge(u.getId(), w.getId(), shortcutCost));
-                            shortcutSet.add(shortcutId); // Mark this shortcut as added
-                            shortcutsAdded++;
-                        }
-                    }
+
+        return avoided;
+    }
+
+    // Shortcuts of the repaired hierarchy (one direction each), in the order they were added
+    public Collection<Edge> getShortcuts() {
+        return Collections.unmodifiableCollection(allEdges);
+    }
+
+    private void applyShortcuts(List<Edge> shortcuts) {
+        for (Edge shortcut : shortcuts) {
+            adjacency.get(indexMap.getIndex(shortcut.getFrom())).add(shortcut);
+            adjacency.get(indexMap.getIndex(shortcut.getTo())).add(new Edge(shortcut.getTo(), shortcut.getFrom(),
+                    shortcut.getCost(), shortcut.getMiddle(), shortcut.getOriginalEdgeCount()));
+            allEdges.add(shortcut);
+        }
+    }
+
+    // Bounded Dijkstra from source over the vertices ranked above hideRank, without the vertex
+    // being contracted. Afterwards the witness search space holds upper bounds on the distances
+    // avoiding that vertex. During a repair, shortcuts bypassing vertices from hideRank upwards
+    // did not exist yet when the vertex was contracted, so they are skipped as well.
+    private void witnessSearch(WitnessSearch witness, int source, int excluded, long maxCost, int hideRank) {
+        boolean hideLaterShortcuts = hideRank < vertexOrder.size();
+        SearchSpace space = witness.space;
+        int[] hops = witness.hops;
+        space.reset();
+        IndexedHeap heap = space.getHeap();
+        space.setDistance(source, 0L, -1);
+        hops[source] = 0;
+        heap.push(source, 0L);
+
+        int settled = 0;
+        while (!heap.isEmpty() && settled < witnessSettledLimit) {
+            long dist = heap.peekKey();
+            if (dist > maxCost) break;
+            int x = heap.poll();
+            settled++;
+            witness.record(x);
+
+            if (hops[x] >= witnessHopLimit) continue;
+
+            List<Edge> edges = adjacency.get(x);
+            for (int i = 0; i < edges.size(); i++) {
+                Edge edge = edges.get(i);
+                int y = indexMap.getIndex(edge.getTo());
+                if (y == excluded || rankByIndex[y] <= hideRank) continue;
+                if (hideLaterShortcuts && i >= inputEdgeCount[x]
+                        && rankByIndex[indexMap.getIndex(edge.getMiddle())] >= hideRank) continue;
+
+                long newDist = dist + edge.getCost();
+                if (newDist <= maxCost && newDist < space.getDistance(y)) {
+                    space.setDistance(y, newDist, x);
+                    hops[y] = hops[x] + 1;
+                    heap.push(y, newDist);
                 }
             }
         }
-    
-        return shortcutsAdded;
+    }
+
+    // Search state of one witness search thread. While recording, it also collects the
+    // distinct vertices settled by all searches since startRecording.
+    private static class WitnessSearch {
+        private final SearchSpace space;
+        private final int[] hops;
+        private final int[] recordedStamp;
+        private int stamp;
+        private boolean recording;
+        private int[] recorded = new int[16];
+        private int recordedCount;
+
+        WitnessSearch(int vertexCount) {
+            space = new SearchSpace(vertexCount);
+            hops = new int[vertexCount];
+            recordedStamp = new int[vertexCount];
+        }
+
+        void startRecording() {
+            recording = true;
+            recordedCount = 0;
+            stamp++;
+        }
+
+        void record(int x) {
+            if (!recording || recordedStamp[x] == stamp) return;
+            recordedStamp[x] = stamp;
+            if (recordedCount == recorded.length) {
+                recorded = Arrays.copyOf(recorded, 2 * recordedCount);
+            }
+            recorded[recordedCount++] = x;
+        }
+
+        // Sorted vertices settled since startRecording
+        int[] stopRecording() {
+            recording = false;
+            int[] settled = Arrays.copyOf(recorded, recordedCount);
+            Arrays.sort(settled);
+            return settled;
+        }
     }
 
     public void exportAugmentedGraph(String filename) {
@@ -194,7 +879,7 @@ public class ContractionHierarchy {
             // Write shortcut edges with the contracted node identifier
             for (Edge shortcutEdge : allEdges) {
                 writer.write(shortcutEdge.getFrom() + " " + shortcutEdge.getTo() + " " 
-                            + shortcutEdge.getCost() + " " + shortcutEdge.getFrom());
+                            + shortcutEdge.getCost() + " " + shortcutEdge.getMiddle());
                 writer.newLine();
             }
     
@@ -0,0 +1,433 @@
+package org.Main;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Customizable contraction hierarchy: the expensive part of a CH, the vertex order and the
+// shortcut topology, depends only on the road network, while the edge costs are applied
+// afterwards in a cheap customization phase that can be repeated for every new metric.
+//
+// The order comes from a nested dissection on the vertex coordinates, and every vertex is
+// contracted without witness searches, so the shortcuts are the same for every metric.
+// Customization then computes the cost of every hierarchy arc (u, w) as the minimum over
+// the input edges and all lower triangles u - v - w. Queries run on an ordinary CHGraph,
+// which is replaced atomically once a customization has finished.
+public class CustomizableContractionHierarchy {
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final CSRGraph graph;
+    private final int n;
+
+    // rank[v] is the contraction order of input vertex v, vertexAt[r] the vertex with rank r
+    private final int[] rank;
+    private final int[] vertexAt;
+
+    // Hierarchy arcs by rank: the upward arcs of r are firstArc[r] .. firstArc[r + 1] - 1,
+    // sorted by the rank of their head. lowerArc lists, for every r, the arcs ending in r,
+    // and lowerTail the lower end of each of them.
+    private final int[] firstArc;
+    private final int[] arcHead;
+    private final int[] firstLower;
+    private final int[] lowerArc;
+    private final int[] lowerTail;
+
+    // Arc of every input edge, and whether the edge runs from the lower to the higher end
+    private final int[] inputArc;
+    private final boolean[] inputUpward;
+
+    // Vertices by rank grouped into levels: all lower neighbours of a vertex are in lower
+    // levels, so the vertices of one level can be customized concurrently
+    private final int[] firstInLevel;
+    private final int[] levelVertices;
+
+    private volatile CHGraph hierarchy;
+    private final AtomicLong metricVersion = new AtomicLong();
+
+    public CustomizableContractionHierarchy(CSRGraph graph) {
+        this(graph, nestedDissectionOrder(graph));
+    }
+
+    // Use the given contraction order, rank[v] for every vertex index of the graph
+    public CustomizableContractionHierarchy(CSRGraph graph, int[] rank) {
+        this.graph = graph;
+        this.n = graph.getVertexCount();
+        this.rank = rank.clone();
+        this.vertexAt = new int[n];
+        Arrays.fill(vertexAt, -1);
+        for (int v = 0; v < n; v++) {
+            if (rank[v] < 0 || rank[v] >= n || vertexAt[rank[v]] >= 0) {
+                throw new IllegalArgumentException("Not a permutation of the vertices: rank " + rank[v] + " of vertex " + v);
+            }
+            vertexAt[rank[v]] = v;
+        }
+
+        // Contract in rank order without witness searches: the upper neighbours of a vertex
+        // become a clique, which is the same as handing them to the lowest of them
+        int[][] up = new int[n][];
+        int[] upSize = new int[n];
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.getEdgeStart(v); e < graph.getEdgeEnd(v); e++) {
+                int w = graph.getTarget(e);
+                if (rank[w] > rank[v]) {
+                    append(up, upSize, rank[v], rank[w]);
+                } else if (rank[w] < rank[v]) {
+                    append(up, upSize, rank[w], rank[v]);
+                }
+            }
+        }
+        int arcCount = 0;
+        for (int r = 0; r < n; r++) {
+            int[] neighbors = up[r] == null ? new int[0] : Arrays.copyOf(up[r], upSize[r]);
+            Arrays.sort(neighbors);
+            int size = 0;
+            for (int i = 0; i < neighbors.length; i++) {
+                if (i == 0 || neighbors[i] != neighbors[i - 1]) {
+                    neighbors[size++] = neighbors[i];
+                }
+            }
+            up[r] = Arrays.copyOf(neighbors, size);
+            upSize[r] = size;
+            arcCount += size;
+            for (int i = 1; i < size; i++) {
+                append(up, upSize, up[r][0], up[r][i]);
+            }
+        }
+
+        this.firstArc = new int[n + 1];
+        this.arcHead = new int[arcCount];
+        this.firstLower = new int[n + 1];
+        for (int r = 0; r < n; r++) {
+            firstArc[r + 1] = firstArc[r] + upSize[r];
+            System.arraycopy(up[r], 0, arcHead, firstArc[r], upSize[r]);
+            for (int w : up[r]) {
+                firstLower[w + 1]++;
+            }
+        }
+        for (int r = 0; r < n; r++) {
+            firstLower[r + 1] += firstLower[r];
+        }
+        this.lowerArc = new int[arcCount];
+        this.lowerTail = new int[arcCount];
+        int[] nextLower = Arrays.copyOf(firstLower, n);
+        for (int r = 0; r < n; r++) {
+            for (int a = firstArc[r]; a < firstArc[r + 1]; a++) {
+                int slot = nextLower[arcHead[a]]++;
+                lowerArc[slot] = a;
+                lowerTail[slot] = r;
+            }
+        }
+
+        this.inputArc = new int[graph.getEdgeCount()];
+        this.inputUpward = new boolean[graph.getEdgeCount()];
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.getEdgeStart(v); e < graph.getEdgeEnd(v); e++) {
+                int w = graph.getTarget(e);
+                inputUpward[e] = rank[w] > rank[v];
+                inputArc[e] = rank[w] == rank[v] ? -1 : findArc(Math.min(rank[v], rank[w]), Math.max(rank[v], rank[w]));
+            }
+        }
+
+        // Level of a vertex is one more than the highest level among its lower neighbours
+        int[] level = new int[n];
+        int levels = n == 0 ? 0 : 1;
+        for (int r = 0; r < n; r++) {
+            for (int a = firstArc[r]; a < firstArc[r + 1]; a++) {
+                level[arcHead[a]] = Math.max(level[arcHead[a]], level[r] + 1);
+                levels = Math.max(levels, level[r] + 2);
+            }
+        }
+        this.firstInLevel = new int[levels + 1];
+        for (int r = 0; r < n; r++) {
+            firstInLevel[level[r] + 1]++;
+        }
+        for (int l = 0; l < levels; l++) {
+            firstInLevel[l + 1] += firstInLevel[l];
+        }
+        this.levelVertices = new int[n];
+        int[] nextInLevel = Arrays.copyOf(firstInLevel, levels);
+        for (int r = 0; r < n; r++) {
+            levelVertices[nextInLevel[level[r]]++] = r;
+        }
+    }
+
+    private static void append(int[][] lists, int[] sizes, int list, int value) {
+        if (lists[list] == null) {
+            lists[list] = new int[4];
+        } else if (sizes[list] == lists[list].length) {
+            lists[list] = Arrays.copyOf(lists[list], 2 * sizes[list]);
+        }
+        lists[list][sizes[list]++] = value;
+    }
+
+    // Arc from rank lower up to rank higher, which exists for every pair of adjacent vertices
+    private int findArc(int lower, int higher) {
+        return Arrays.binarySearch(arcHead, firstArc[lower], firstArc[lower + 1], higher);
+    }
+
+    // Order by recursive bisection of the coordinates. Each part is split at the median of
+    // its wider coordinate, the smaller of the two boundaries becomes the separator and gets
+    // the highest ranks still free, and both remaining halves are ordered below it.
+    public static int[] nestedDissectionOrder(CSRGraph graph) {
+        int n = graph.getVertexCount();
+        int[] rank = new int[n];
+        int nextRank = n - 1;
+
+        // side[v] identifies the half of its current part that v is in
+        int[] side = new int[n];
+        Arrays.fill(side, -1);
+        int stamp = 0;
+
+        ArrayDeque<int[]> parts = new ArrayDeque<>();
+        parts.push(IntStream.range(0, n).toArray());
+        while (!parts.isEmpty()) {
+            int[] part = parts.pop();
+            if (part.length <= 2) {
+                for (int v : part) {
+                    rank[v] = nextRank--;
+                }
+                continue;
+            }
+
+            double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+            double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+            for (int v : part) {
+                minLon = Math.min(minLon, graph.getLongitude(v));
+                maxLon = Math.max(maxLon, graph.getLongitude(v));
+                minLat = Math.min(minLat, graph.getLatitude(v));
+                maxLat = Math.max(maxLat, graph.getLatitude(v));
+            }
+            boolean byLongitude = (maxLon - minLon) * Math.cos(Math.toRadians((minLat + maxLat) / 2)) > maxLat - minLat;
+            Comparator<Integer> coordinate = byLongitude
+                    ? Comparator.comparingDouble(graph::getLongitude)
+                    : Comparator.comparingDouble(graph::getLatitude);
+            int[] sorted = Arrays.stream(part).boxed()
+                    .sorted(coordinate.thenComparingInt(v -> v))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            int left = stamp++;
+            int right = stamp++;
+            int half = sorted.length / 2;
+            for (int i = 0; i < sorted.length; i++) {
+                side[sorted[i]] = i < half ? left : right;
+            }
+
+            boolean[] leftBoundary = new boolean[sorted.length];
+            boolean[] rightBoundary = new boolean[sorted.length];
+            int leftCount = 0;
+            int rightCount = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                int v = sorted[i];
+                int other = i < half ? right : left;
+                if (touches(graph, v, side, other)) {
+                    if (i < half) {
+                        leftBoundary[i] = true;
+                        leftCount++;
+                    } else {
+                        rightBoundary[i] = true;
+                        rightCount++;
+                    }
+                }
+            }
+            boolean[] separator = leftCount <= rightCount ? leftBoundary : rightBoundary;
+
+            IntStream.Builder leftPart = IntStream.builder();
+            IntStream.Builder rightPart = IntStream.builder();
+            for (int i = 0; i < sorted.length; i++) {
+                if (separator[i]) {
+                    rank[sorted[i]] = nextRank--;
+                } else if (i < half) {
+                    leftPart.add(sorted[i]);
+                } else {
+                    rightPart.add(sorted[i]);
+                }
+            }
+            parts.push(leftPart.build().toArray());
+            parts.push(rightPart.build().toArray());
+        }
+        return rank;
+    }
+
+    // True if v has an incoming or outgoing edge to a vertex on the given side
+    private static boolean touches(CSRGraph graph, int v, int[] side, int other) {
+        for (int e = graph.getEdgeStart(v); e < graph.getEdgeEnd(v); e++) {
+            if (side[graph.getTarget(e)] == other) return true;
+        }
+        for (int e = graph.getInEdgeStart(v); e < graph.getInEdgeEnd(v); e++) {
+            if (side[graph.getSource(e)] == other) return true;
+        }
+        return false;
+    }
+
+    // Customize with the costs of the input graph
+    public CHGraph customize(int threads) {
+        int[] cost = new int[graph.getEdgeCount()];
+        for (int e = 0; e < cost.length; e++) {
+            cost[e] = graph.getCost(e);
+        }
+        return customize(cost, threads);
+    }
+
+    // Compute all arc costs for a new metric, cost[e] for every edge index e of the input
+    // graph, and swap the result in. Queries that are already running finish on the old
+    // metric; later ones see the new one.
+    public synchronized CHGraph customize(int[] cost, int threads) {
+        if (cost.length != graph.getEdgeCount()) {
+            throw new IllegalArgumentException("Expected " + graph.getEdgeCount() + " edge costs, got " + cost.length);
+        }
+
+        // up[a] is the cost from the lower to the higher end of arc a, down[a] the reverse
+        int[] up = new int[arcHead.length];
+        int[] down = new int[arcHead.length];
+        int[] upMiddle = new int[arcHead.length];
+        int[] downMiddle = new int[arcHead.length];
+        Arrays.fill(up, INFINITY);
+        Arrays.fill(down, INFINITY);
+        Arrays.fill(upMiddle, -1);
+        Arrays.fill(downMiddle, -1);
+        for (int e = 0; e < cost.length; e++) {
+            int a = inputArc[e];
+            if (a < 0) continue;
+            if (inputUpward[e]) {
+                up[a] = Math.min(up[a], cost[e]);
+            } else {
+                down[a] = Math.min(down[a], cost[e]);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int l = 0; l + 1 < firstInLevel.length; l++) {
+                int start = firstInLevel[l];
+                runParallel(pool, firstInLevel[l + 1] - start,
+                        i -> customizeVertex(levelVertices[start + i], up, down, upMiddle, downMiddle));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        CHGraph customized = buildHierarchy(up, down, upMiddle, downMiddle);
+        hierarchy = customized;
+        metricVersion.incrementAndGet();
+        return customized;
+    }
+
+    // Final costs of the upward arcs of u from the lower triangles v - u - w. The arcs of
+    // every lower neighbour v are already final, and only arcs of u are written.
+    private void customizeVertex(int u, int[] up, int[] down, int[] upMiddle, int[] downMiddle) {
+        for (int i = firstLower[u]; i < firstLower[u + 1]; i++) {
+            int vu = lowerArc[i];
+            int v = lowerTail[i];
+            if (up[vu] == INFINITY && down[vu] == INFINITY) continue;
+
+            // The upper neighbours of v above u are all upper neighbours of u
+            int uw = firstArc[u];
+            for (int vw = vu + 1; vw < firstArc[v + 1]; vw++) {
+                while (arcHead[uw] != arcHead[vw]) uw++;
+                long viaUp = (long) down[vu] + up[vw];
+                if (viaUp < up[uw]) {
+                    up[uw] = (int) viaUp;
+                    upMiddle[uw] = v;
+                }
+                long viaDown = (long) down[vw] + up[vu];
+                if (viaDown < down[uw]) {
+                    down[uw] = (int) viaDown;
+                    downMiddle[uw] = v;
+                }
+            }
+        }
+    }
+
+    private CHGraph buildHierarchy(int[] up, int[] down, int[] upMiddle, int[] downMiddle) {
+        int m = 2 * arcHead.length;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] cost = new int[m];
+        int[] middle = new int[m];
+        int edgeCount = 0;
+        for (int r = 0; r < n; r++) {
+            for (int a = firstArc[r]; a < firstArc[r + 1]; a++) {
+                int lower = vertexAt[r];
+                int higher = vertexAt[arcHead[a]];
+                if (up[a] != INFINITY) {
+                    from[edgeCount] = lower;
+                    to[edgeCount] = higher;
+                    cost[edgeCount] = up[a];
+                    middle[edgeCount++] = upMiddle[a] < 0 ? -1 : vertexAt[upMiddle[a]];
+                }
+                if (down[a] != INFINITY) {
+                    from[edgeCount] = higher;
+                    to[edgeCount] = lower;
+                    cost[edgeCount] = down[a];
+                    middle[edgeCount++] = downMiddle[a] < 0 ? -1 : vertexAt[downMiddle[a]];
+                }
+            }
+        }
+
+        double[] longitude = new double[n];
+        double[] latitude = new double[n];
+        for (int v = 0; v < n; v++) {
+            longitude[v] = graph.getLongitude(v);
+            latitude[v] = graph.getLatitude(v);
+        }
+        return CHGraph.fromEdges(graph.getIdMap(), longitude, latitude, rank, from, to, cost, middle, edgeCount);
+    }
+
+    private static void runParallel(ForkJoinPool pool, int count, IntConsumer body) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Customization was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Customization failed", e.getCause());
+        }
+    }
+
+    // The hierarchy for the current metric
+    public CHGraph getCHGraph() {
+        CHGraph current = hierarchy;
+        if (current == null) {
+            throw new IllegalStateException("customize() must run before the hierarchy can be queried");
+        }
+        return current;
+    }
+
+    // Number of customizations so far; usable as the version of a CachedQueryEngine
+    public long getMetricVersion() {
+        return metricVersion.get();
+    }
+
+    public int getArcCount() {
+        return arcHead.length;
+    }
+
+    public int getLevelCount() {
+        return firstInLevel.length - 1;
+    }
+
+    public int getRank(int v) {
+        return rank[v];
+    }
+
+    // Queries on whatever metric is current when each query starts
+    public QueryEngine queryEngine() {
+        return new QueryEngine() {
+            @Override
+            public QueryResult query(long source, long target, QueryWorkspace workspace) {
+                return BidirectionalDijkstraCH.bidirectionalDijkstra(getCHGraph(), source, target, workspace);
+            }
+
+            @Override
+            public QueryWorkspace newWorkspace() {
+                return new QueryWorkspace(getCHGraph());
+            }
+        };
+    }
+}
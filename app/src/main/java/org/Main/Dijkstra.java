@@ -55,5 +55,104 @@ public class Dijkstra {
         return new QueryResult(-1, relaxedEdges); // No path found
     }
 
-    
-}
\ No newline at end of file
+    // Same search on the CSR representation; source and target are external vertex ids
+    public static QueryResult dijkstra(CSRGraph graph, long source, long target) {
+        return dijkstra(graph, source, target, new QueryWorkspace(graph));
+    }
+
+    // Search reusing a workspace allocated once per thread for many queries
+    public static QueryResult dijkstra(CSRGraph graph, long source, long target, QueryWorkspace workspace) {
+        checkWorkspace(graph.getVertexCount(), workspace);
+        int s = graph.getIndex(source);
+        int t = graph.getIndex(target);
+        if (s < 0 || t < 0) {
+            return new QueryResult(-1, 0);
+        }
+
+        SearchSpace space = workspace.forward();
+        space.reset();
+        IndexedHeap heap = space.getHeap();
+        long relaxedEdges = 0;
+
+        space.setDistance(s, 0L, -1);
+        heap.push(s, 0L);
+
+        while (!heap.isEmpty()) {
+            long dist = heap.peekKey();
+            int u = heap.poll();
+
+            if (u == t) {
+                return new QueryResult(dist, relaxedEdges);
+            }
+
+            for (int e = graph.getEdgeStart(u); e < graph.getEdgeEnd(u); e++) {
+                int v = graph.getTarget(e);
+                long newDist = dist + graph.getCost(e);
+
+                if (newDist < space.getDistance(v)) {
+                    space.setDistance(v, newDist, u);
+                    heap.push(v, newDist);
+                    relaxedEdges++;
+                }
+            }
+        }
+
+        return new QueryResult(-1, relaxedEdges);
+    }
+
+    // Distances from source to every vertex, indexed like the graph, -1 where unreachable
+    public static long[] distancesFrom(CSRGraph graph, long source) {
+        int s = graph.getIndex(source);
+        if (s < 0) {
+            throw new IllegalArgumentException("Unknown vertex " + source);
+        }
+        SearchSpace space = new SearchSpace(graph.getVertexCount());
+        oneToAll(graph, s, false, space, null);
+        long[] distances = new long[graph.getVertexCount()];
+        for (int v = 0; v < distances.length; v++) {
+            long dist = space.getDistance(v);
+            distances[v] = dist == Long.MAX_VALUE ? -1 : dist;
+        }
+        return distances;
+    }
+
+    // Search without a target, leaving all distances in space. The backward variant runs
+    // over the reverse edges and gives distances from every vertex to source. If settled is
+    // given, it receives the vertices in the order they were settled; returns their number.
+    static int oneToAll(CSRGraph graph, int source, boolean backward, SearchSpace space, int[] settled) {
+        int count = 0;
+        space.reset();
+        IndexedHeap heap = space.getHeap();
+        space.setDistance(source, 0L, -1);
+        heap.push(source, 0L);
+
+        while (!heap.isEmpty()) {
+            long dist = heap.peekKey();
+            int u = heap.poll();
+            if (settled != null) {
+                settled[count] = u;
+            }
+            count++;
+
+            int start = backward ? graph.getInEdgeStart(u) : graph.getEdgeStart(u);
+            int end = backward ? graph.getInEdgeEnd(u) : graph.getEdgeEnd(u);
+            for (int e = start; e < end; e++) {
+                int v = backward ? graph.getSource(e) : graph.getTarget(e);
+                long newDist = dist + (backward ? graph.getInCost(e) : graph.getCost(e));
+
+                if (newDist < space.getDistance(v)) {
+                    space.setDistance(v, newDist, u);
+                    heap.push(v, newDist);
+                }
+            }
+        }
+        return count;
+    }
+
+    static void checkWorkspace(int vertexCount, QueryWorkspace workspace) {
+        if (workspace.getVertexCount() != vertexCount) {
+            throw new IllegalArgumentException("Workspace sized for " + workspace.getVertexCount()
+                    + " vertices used on a graph with " + vertexCount);
+        }
+    }
+}
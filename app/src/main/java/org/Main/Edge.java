@@ -5,6 +5,9 @@ public class Edge {
     private long to;
     private int cost;
     private boolean contracted;  // Track whether this edge is contracted
+    private boolean shortcut;
+    private long middle;  // Vertex bypassed by a shortcut
+    private int originalEdgeCount = 1;  // Number of original edges this edge stands for
 
     // Constructor
     public Edge(long from, long to, int cost) {
@@ -14,6 +17,18 @@ public class Edge {
         this.contracted = false;  // Initially not contracted
     }
 
+    // Shortcut edge replacing the path from -> middle -> to
+    public Edge(long from, long to, int cost, long middle) {
+        this(from, to, cost);
+        this.shortcut = true;
+        this.middle = middle;
+    }
+
+    public Edge(long from, long to, int cost, long middle, int originalEdgeCount) {
+        this(from, to, cost, middle);
+        this.originalEdgeCount = originalEdgeCount;
+    }
+
     // Getters
     public long getFrom() {
         return from;
@@ -27,6 +42,24 @@ public class Edge {
         return cost;
     }
 
+    // Change the cost in place, for metric updates on an existing graph or hierarchy
+    public void setCost(int cost) {
+        this.cost = cost;
+    }
+
+    public boolean isShortcut() {
+        return shortcut;
+    }
+
+    // Vertex bypassed by this shortcut; only meaningful if isShortcut()
+    public long getMiddle() {
+        return middle;
+    }
+
+    public int getOriginalEdgeCount() {
+        return originalEdgeCount;
+    }
+
     // Check if the edge is contracted
     public boolean isContracted() {
         return contracted;
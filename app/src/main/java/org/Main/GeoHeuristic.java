@@ -0,0 +1,55 @@
+package org.Main;
+
+// Great-circle distance between the vertex coordinates, scaled by the smallest cost per metre
+// of any edge. No edge is cheaper per metre than that, so no path is cheaper than its
+// straight-line length at that rate, which makes the bound admissible and consistent.
+public class GeoHeuristic implements Heuristic {
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+
+    private final double[] latitudeRadians;
+    private final double[] longitudeRadians;
+    private final double[] cosLatitude;
+    private final double costPerMeter;
+
+    public GeoHeuristic(CSRGraph graph) {
+        int n = graph.getVertexCount();
+        latitudeRadians = new double[n];
+        longitudeRadians = new double[n];
+        cosLatitude = new double[n];
+        for (int v = 0; v < n; v++) {
+            latitudeRadians[v] = Math.toRadians(graph.getLatitude(v));
+            longitudeRadians[v] = Math.toRadians(graph.getLongitude(v));
+            cosLatitude[v] = Math.cos(latitudeRadians[v]);
+        }
+
+        // Edges between coincident points say nothing about the rate and are skipped
+        double minRate = Double.POSITIVE_INFINITY;
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.getEdgeStart(u); e < graph.getEdgeEnd(u); e++) {
+                double meters = meters(u, graph.getTarget(e));
+                if (meters > 0) {
+                    minRate = Math.min(minRate, graph.getCost(e) / meters);
+                }
+            }
+        }
+        // Slightly below the rate so that rounding in meters() cannot overestimate
+        costPerMeter = Double.isInfinite(minRate) ? 0 : minRate * (1 - 1e-9);
+    }
+
+    public double getCostPerMeter() {
+        return costPerMeter;
+    }
+
+    @Override
+    public long estimate(int from, int to) {
+        return (long) (meters(from, to) * costPerMeter);
+    }
+
+    // Haversine distance
+    private double meters(int a, int b) {
+        double sinLat = Math.sin((latitudeRadians[b] - latitudeRadians[a]) / 2);
+        double sinLon = Math.sin((longitudeRadians[b] - longitudeRadians[a]) / 2);
+        double h = sinLat * sinLat + cosLatitude[a] * cosLatitude[b] * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+}
@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
@@ -37,6 +38,53 @@ public class Graph {
         getVertexById(to).addEdge(new Edge(to, from, cost));
     }
 
+    // Change the cost of the edges between from and to in both directions, in the adjacency
+    // list and in the vertex edge lists, which the contraction hierarchy reads as an
+    // undirected graph. The Edge objects of this graph are changed in place; shortcuts are
+    // left alone. Returns the number of edge objects changed.
+    public int updateEdgeCost(long from, long to, int cost) {
+        Vertex tail = getVertexById(from);
+        Vertex head = getVertexById(to);
+        if (tail == null || head == null) {
+            throw new IllegalArgumentException("Unknown vertex in edge " + from + " -> " + to);
+        }
+
+        Set<Edge> changed = new HashSet<>();
+        collectEdges(adjacencyList.getOrDefault(from, List.of()), to, changed);
+        collectEdges(adjacencyList.getOrDefault(to, List.of()), from, changed);
+        collectEdges(tail.getEdges(), to, changed);
+        collectEdges(head.getEdges(), from, changed);
+        if (changed.isEmpty()) {
+            throw new IllegalArgumentException("No edge " + from + " -> " + to);
+        }
+        for (Edge edge : changed) {
+            edge.setCost(cost);
+        }
+        return changed.size();
+    }
+
+    private static void collectEdges(Collection<Edge> edges, long to, Set<Edge> changed) {
+        for (Edge edge : edges) {
+            if (edge.getTo() == to && !edge.isShortcut()) changed.add(edge);
+        }
+    }
+
+    // Add a shortcut from -> to that replaces the path from -> middle -> to
+    public void addShortcut(long from, long to, int cost, long middle) {
+        addShortcut(from, to, cost, middle, 2);
+    }
+
+    // Add a shortcut that stands for originalEdgeCount edges of the input graph
+    public void addShortcut(long from, long to, int cost, long middle, int originalEdgeCount) {
+        adjacencyList.putIfAbsent(from, new ArrayList<>());
+        adjacencyList.putIfAbsent(to, new ArrayList<>());
+        Edge edge = new Edge(from, to, cost, middle, originalEdgeCount);
+        adjacencyList.get(from).add(edge);
+
+        getVertexById(from).addEdge(edge);
+        getVertexById(to).addEdge(new Edge(to, from, cost, middle, originalEdgeCount));
+    }
+
     
     public List<Edge> getEdges() {
         Set<Edge> edgeSet = new HashSet<>();
@@ -104,6 +152,8 @@ public class Graph {
 
     // Read graph from input stream
     public static Graph readGraphFromInput(InputStream input) throws IOException {
+        GraphLoadEvent event = new GraphLoadEvent();
+        event.begin();
         BufferedReader reader = new BufferedReader(new InputStreamReader(input));
         String[] firstLine = reader.readLine().split(" ");
         int n = Integer.parseInt(firstLine[0]);
@@ -129,6 +179,7 @@ public class Graph {
             graph.addEdge(from, to, cost);
         }
 
+        event.report("text", "stream", n, m);
         return graph;
     }
 }
\ No newline at end of file
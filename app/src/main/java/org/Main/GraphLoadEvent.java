@@ -0,0 +1,40 @@
+package org.Main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight recorder event covering one graph or hierarchy load. Loads are rare, so the event
+// is on whenever a recording is running.
+@Name("org.Main.GraphLoad")
+@Label("Graph Load")
+@Category({"Routing", "Loading"})
+@StackTrace(false)
+public class GraphLoadEvent extends Event {
+    @Label("Format")
+    @Description("Text, mapped text, snapshot or hierarchy snapshot")
+    String format;
+
+    @Label("Source")
+    String source;
+
+    @Label("Vertices")
+    int vertexCount;
+
+    @Label("Edges")
+    long edgeCount;
+
+    // Fill in and commit the event if a recording wants it
+    void report(String format, Object source, int vertexCount, long edgeCount) {
+        if (shouldCommit()) {
+            this.format = format;
+            this.source = String.valueOf(source);
+            this.vertexCount = vertexCount;
+            this.edgeCount = edgeCount;
+            commit();
+        }
+    }
+}
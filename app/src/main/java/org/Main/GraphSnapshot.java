@@ -0,0 +1,240 @@
+package org.Main;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Versioned binary snapshot of a CSRGraph. Written once from a parsed graph, then opened
+// by memory-mapping the file and bulk-copying the arrays, which skips all text parsing.
+// open() copies every column onto the heap; OffHeapStorage.mapGraphSnapshot reads the
+// same file in place instead. The header keeps a CRC32 of the text file the graph was parsed
+// from, so a snapshot can be checked against its source before it is reused.
+//
+// Layout (big-endian):
+//   header:  int magic, int version, int vertexCount, int edgeCount,
+//            long crc32 of the source file (0 if unknown), long crc32 of the payload
+//   payload: long[n] ids, double[n] longitude, double[n] latitude,
+//            int[n+1] firstOut, int[m] target, int[m] cost,
+//            int[n+1] firstIn, int[m] source, int[m] inCost
+public class GraphSnapshot {
+    public static final int MAGIC = 0x43534752; // "CSGR"
+    public static final int VERSION = 2;
+    static final int HEADER_BYTES = 32;
+
+    // CRC32 of a whole file, e.g. the text graph a snapshot is built from
+    public static long sourceChecksum(Path source) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(source)) {
+            for (int read = in.read(chunk); read >= 0; read = in.read(chunk)) {
+                crc.update(chunk, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    // Write a snapshot whose source file is not known
+    public static void write(CSRGraph graph, Path path) throws IOException {
+        write(graph, 0L, path);
+    }
+
+    // Write a snapshot together with the sourceChecksum of the file the graph was parsed from
+    public static void write(CSRGraph graph, long sourceChecksum, Path path) throws IOException {
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        CRC32 crc = new CRC32();
+
+        try (OutputStream file = Files.newOutputStream(path)) {
+            DataOutputStream header = new DataOutputStream(file);
+            writeHeader(header, n, m, sourceChecksum, 0L); // Checksum is patched in below
+            header.flush();
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+            for (int v = 0; v < n; v++) out.writeLong(graph.getId(v));
+            for (int v = 0; v < n; v++) out.writeDouble(graph.getLongitude(v));
+            for (int v = 0; v < n; v++) out.writeDouble(graph.getLatitude(v));
+
+            for (int v = 0; v < n; v++) out.writeInt(graph.getEdgeStart(v));
+            out.writeInt(m);
+            for (int e = 0; e < m; e++) out.writeInt(graph.getTarget(e));
+            for (int e = 0; e < m; e++) out.writeInt(graph.getCost(e));
+
+            for (int v = 0; v < n; v++) out.writeInt(graph.getInEdgeStart(v));
+            out.writeInt(m);
+            for (int e = 0; e < m; e++) out.writeInt(graph.getSource(e));
+            for (int e = 0; e < m; e++) out.writeInt(graph.getInCost(e));
+            out.flush();
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(HEADER_BYTES - 8);
+            file.writeLong(crc.getValue());
+        }
+    }
+
+    // Map the snapshot, verify header and checksum, and copy the columns into a heap graph
+    public static CSRGraph open(Path path) throws IOException {
+        GraphLoadEvent event = new GraphLoadEvent();
+        event.begin();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = map(channel, path);
+            Header header = readHeader(buffer, channel.size(), path);
+            verifyChecksum(buffer, HEADER_BYTES, header.getChecksum(), path);
+
+            int n = header.getVertexCount();
+            int m = header.getEdgeCount();
+            buffer.position(HEADER_BYTES);
+
+            long[] ids = readLongs(buffer, n);
+            double[] longitude = readDoubles(buffer, n);
+            double[] latitude = readDoubles(buffer, n);
+            int[] firstOut = readInts(buffer, n + 1);
+            int[] target = readInts(buffer, m);
+            int[] cost = readInts(buffer, m);
+            int[] firstIn = readInts(buffer, n + 1);
+            int[] source = readInts(buffer, m);
+            int[] inCost = readInts(buffer, m);
+
+            CSRGraph graph = new CSRGraph(VertexIdMap.of(ids), longitude, latitude, firstOut, target, cost, firstIn, source, inCost);
+            event.report("snapshot", path, n, m);
+            return graph;
+        }
+    }
+
+    // Check a snapshot without loading it; throws IOException if it is not servable
+    public static Header validate(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = map(channel, path);
+            Header header = readHeader(buffer, channel.size(), path);
+            verifyChecksum(buffer, HEADER_BYTES, header.getChecksum(), path);
+            return header;
+        }
+    }
+
+    // Header only, checked for magic, version and file size but not for the payload checksum
+    public static Header readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read the whole header
+            }
+            return readHeader(header, channel.size(), path);
+        }
+    }
+
+    static long payloadBytes(long n, long m) {
+        return n * 8 * 3 + (n + 1) * 4 * 2 + m * 4 * 4;
+    }
+
+    private static void writeHeader(DataOutputStream out, int n, int m, long sourceChecksum, long checksum) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(n);
+        out.writeInt(m);
+        out.writeLong(sourceChecksum);
+        out.writeLong(checksum);
+    }
+
+    static MappedByteBuffer map(FileChannel channel, Path path) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot larger than 2 GB cannot be mapped in one buffer: " + path);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    static Header readHeader(ByteBuffer buffer, long fileSize, Path path) throws IOException {
+        if (fileSize < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a graph snapshot: " + path);
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + path);
+        }
+        Header header = new Header(version, buffer.getInt(8), buffer.getInt(12), buffer.getLong(16), buffer.getLong(24));
+        long expectedSize = HEADER_BYTES + payloadBytes(header.getVertexCount(), header.getEdgeCount());
+        if (header.getVertexCount() < 0 || header.getEdgeCount() < 0 || fileSize != expectedSize) {
+            throw new IOException("Snapshot " + path + " has " + fileSize + " bytes, expected " + expectedSize);
+        }
+        return header;
+    }
+
+    static void verifyChecksum(ByteBuffer buffer, int payloadStart, long checksum, Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(payloadStart);
+        crc.update(payload);
+        if (crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch in snapshot " + path);
+        }
+    }
+
+    static long[] readLongs(ByteBuffer buffer, int count) {
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + count * 8);
+        return values;
+    }
+
+    static double[] readDoubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * 8);
+        return values;
+    }
+
+    static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+
+    public static class Header {
+        private final int version;
+        private final int vertexCount;
+        private final int edgeCount;
+        private final long sourceChecksum;
+        private final long checksum;
+
+        Header(int version, int vertexCount, int edgeCount, long sourceChecksum, long checksum) {
+            this.version = version;
+            this.vertexCount = vertexCount;
+            this.edgeCount = edgeCount;
+            this.sourceChecksum = sourceChecksum;
+            this.checksum = checksum;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public int getVertexCount() {
+            return vertexCount;
+        }
+
+        public int getEdgeCount() {
+            return edgeCount;
+        }
+
+        // CRC32 of the source text file, 0 if the snapshot was written without one
+        public long getSourceChecksum() {
+            return sourceChecksum;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+    }
+}
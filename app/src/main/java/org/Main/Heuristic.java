@@ -0,0 +1,9 @@
+package org.Main;
+
+// Lower bound on the shortest-path distance between two vertices, given as dense indices of
+// the graph the heuristic was built for. A* needs it to be admissible (never above the true
+// distance) and consistent: estimate(u, t) <= cost(u, v) + estimate(v, t) for every edge.
+public interface Heuristic {
+
+    long estimate(int from, int to);
+}
@@ -0,0 +1,174 @@
+package org.Main;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Binary file for a preprocessed contraction hierarchy, so contraction can run once offline
+// and a service only pays for loading. Same conventions as GraphSnapshot. The header keeps
+// a fingerprint of the input graph, so a file left over from another graph is detected
+// instead of silently answering queries with stale distances.
+//
+// Layout (big-endian):
+//   header:  int magic, int version, int vertexCount, int upEdgeCount, int downEdgeCount,
+//            long fingerprint of the input graph (0 if unknown), long crc32 of the payload
+//   payload: long[n] ids, double[n] longitude, double[n] latitude, int[n] rank,
+//            int[n+1] firstUp, int[u] upTarget, int[u] upCost, int[u] upMiddle,
+//            int[n+1] firstDown, int[d] downSource, int[d] downCost, int[d] downMiddle
+public class HierarchySnapshot {
+    public static final int MAGIC = 0x43484752; // "CHGR"
+    public static final int VERSION = 2;
+    static final int HEADER_BYTES = 36;
+    static final int FINGERPRINT_OFFSET = 20;
+    static final int CHECKSUM_OFFSET = 28;
+
+    // CRC32 of the vertex ids, coordinates and edges of the graph in its CSR order. Any change
+    // to a cost or to the topology, and any renumbering, gives a different fingerprint.
+    public static long fingerprint(CSRGraph graph) {
+        int n = graph.getVertexCount();
+        ByteBuffer record = ByteBuffer.allocate(24);
+        CRC32 crc = new CRC32();
+        record.putInt(0, n).putInt(4, graph.getEdgeCount());
+        crc.update(record.array(), 0, 8);
+        for (int v = 0; v < n; v++) {
+            record.putLong(0, graph.getId(v)).putDouble(8, graph.getLongitude(v)).putDouble(16, graph.getLatitude(v));
+            crc.update(record.array(), 0, 24);
+            for (int e = graph.getEdgeStart(v); e < graph.getEdgeEnd(v); e++) {
+                record.putInt(0, graph.getTarget(e)).putInt(4, graph.getCost(e));
+                crc.update(record.array(), 0, 8);
+            }
+        }
+        return crc.getValue();
+    }
+
+    // Write a hierarchy whose input graph is not known
+    public static void write(CHGraph hierarchy, Path path) throws IOException {
+        write(hierarchy, 0L, path);
+    }
+
+    // Write a hierarchy together with the fingerprint of the graph it was contracted from
+    public static void write(CHGraph hierarchy, long graphFingerprint, Path path) throws IOException {
+        int n = hierarchy.getVertexCount();
+        int up = hierarchy.getUpEdgeCount();
+        int down = hierarchy.getDownEdgeCount();
+        CRC32 crc = new CRC32();
+
+        try (OutputStream file = Files.newOutputStream(path)) {
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(n);
+            header.writeInt(up);
+            header.writeInt(down);
+            header.writeLong(graphFingerprint);
+            header.writeLong(0L); // Checksum is patched in below
+            header.flush();
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+            for (int v = 0; v < n; v++) out.writeLong(hierarchy.getId(v));
+            for (int v = 0; v < n; v++) out.writeDouble(hierarchy.getLongitude(v));
+            for (int v = 0; v < n; v++) out.writeDouble(hierarchy.getLatitude(v));
+            for (int v = 0; v < n; v++) out.writeInt(hierarchy.getRank(v));
+
+            for (int v = 0; v < n; v++) out.writeInt(hierarchy.getUpStart(v));
+            out.writeInt(up);
+            for (int e = 0; e < up; e++) out.writeInt(hierarchy.getUpTarget(e));
+            for (int e = 0; e < up; e++) out.writeInt(hierarchy.getUpCost(e));
+            for (int e = 0; e < up; e++) out.writeInt(hierarchy.getUpMiddle(e));
+
+            for (int v = 0; v < n; v++) out.writeInt(hierarchy.getDownStart(v));
+            out.writeInt(down);
+            for (int e = 0; e < down; e++) out.writeInt(hierarchy.getDownSource(e));
+            for (int e = 0; e < down; e++) out.writeInt(hierarchy.getDownCost(e));
+            for (int e = 0; e < down; e++) out.writeInt(hierarchy.getDownMiddle(e));
+            out.flush();
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(CHECKSUM_OFFSET);
+            file.writeLong(crc.getValue());
+        }
+    }
+
+    // Check magic, version and file size; the counts are at offsets 8, 12 and 16
+    static void checkHeader(ByteBuffer buffer, long fileSize, Path path) throws IOException {
+        if (fileSize < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a contraction hierarchy file: " + path);
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported hierarchy version " + version + " in " + path);
+        }
+        int n = buffer.getInt(8);
+        int up = buffer.getInt(12);
+        int down = buffer.getInt(16);
+        long expectedSize = HEADER_BYTES + n * 28L + (n + 1) * 8L + (up + (long) down) * 12;
+        if (n < 0 || up < 0 || down < 0 || fileSize != expectedSize) {
+            throw new IOException("Hierarchy file " + path + " has " + fileSize + " bytes, expected " + expectedSize);
+        }
+    }
+
+    // Fingerprint of the input graph stored in the header, after checking magic, version and size
+    public static long readGraphFingerprint(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read the whole header
+            }
+            checkHeader(header, channel.size(), path);
+            return header.getLong(FINGERPRINT_OFFSET);
+        }
+    }
+
+    // Load a hierarchy and check that it was contracted from the graph with this fingerprint
+    public static CHGraph open(Path path, long graphFingerprint) throws IOException {
+        long stored = readGraphFingerprint(path);
+        if (stored != graphFingerprint) {
+            throw new IOException("Hierarchy file " + path + " was built from a different graph");
+        }
+        return open(path);
+    }
+
+    // Load a query-ready hierarchy without running ContractionHierarchy.preprocess()
+    public static CHGraph open(Path path) throws IOException {
+        GraphLoadEvent event = new GraphLoadEvent();
+        event.begin();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = GraphSnapshot.map(channel, path);
+            checkHeader(buffer, channel.size(), path);
+            int n = buffer.getInt(8);
+            int up = buffer.getInt(12);
+            int down = buffer.getInt(16);
+            GraphSnapshot.verifyChecksum(buffer, HEADER_BYTES, buffer.getLong(CHECKSUM_OFFSET), path);
+
+            ByteBuffer payload = buffer.position(HEADER_BYTES);
+            long[] ids = GraphSnapshot.readLongs(payload, n);
+            double[] longitude = GraphSnapshot.readDoubles(payload, n);
+            double[] latitude = GraphSnapshot.readDoubles(payload, n);
+            int[] rank = GraphSnapshot.readInts(payload, n);
+            int[] firstUp = GraphSnapshot.readInts(payload, n + 1);
+            int[] upTarget = GraphSnapshot.readInts(payload, up);
+            int[] upCost = GraphSnapshot.readInts(payload, up);
+            int[] upMiddle = GraphSnapshot.readInts(payload, up);
+            int[] firstDown = GraphSnapshot.readInts(payload, n + 1);
+            int[] downSource = GraphSnapshot.readInts(payload, down);
+            int[] downCost = GraphSnapshot.readInts(payload, down);
+            int[] downMiddle = GraphSnapshot.readInts(payload, down);
+
+            CHGraph hierarchy = new CHGraph(VertexIdMap.of(ids), longitude, latitude, rank, firstUp, upTarget, upCost, upMiddle,
+                    firstDown, downSource, downCost, downMiddle);
+            event.report("hierarchy snapshot", path, n, up + (long) down);
+            return hierarchy;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.Main;
+
+import java.util.Arrays;
+
+// Indexed 4-ary min-heap over the integers 0..capacity-1 with long keys.
+// Every element is in the heap at most once, so a relaxation updates the key in place
+// (decrease-key) instead of pushing a new object, and arbitrary elements can be removed
+// in O(log n).
+public class IndexedHeap {
+    private static final int ARITY = 4;
+
+    private final int[] heap;     // heap position -> element
+    private final int[] position; // element -> heap position, -1 if absent
+    private final long[] keys;    // element -> key
+    private int size;
+    private long pushCount;  // Totals since construction, for instrumentation
+    private long pollCount;
+
+    public IndexedHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int element) {
+        return position[element] >= 0;
+    }
+
+    // Key of an element currently in the heap
+    public long getKey(int element) {
+        return keys[element];
+    }
+
+    // Insert the element, or move it to the new key if it is already present
+    public void push(int element, long key) {
+        pushCount++;
+        int pos = position[element];
+        if (pos < 0) {
+            keys[element] = key;
+            pos = size++;
+            heap[pos] = element;
+            position[element] = pos;
+            siftUp(pos);
+        } else {
+            long oldKey = keys[element];
+            keys[element] = key;
+            if (key < oldKey) {
+                siftUp(pos);
+            } else if (key > oldKey) {
+                siftDown(pos);
+            }
+        }
+    }
+
+    // Insert the element or lower its key; returns false if the present key is not larger
+    public boolean decreaseKey(int element, long key) {
+        if (position[element] >= 0 && keys[element] <= key) {
+            return false;
+        }
+        push(element, key);
+        return true;
+    }
+
+    // Element with the smallest key
+    public int peek() {
+        return heap[0];
+    }
+
+    public long peekKey() {
+        return keys[heap[0]];
+    }
+
+    // Remove and return the element with the smallest key
+    public int poll() {
+        pollCount++;
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    public void remove(int element) {
+        int pos = position[element];
+        if (pos >= 0) {
+            removeAt(pos);
+        }
+    }
+
+    // Inserts and key changes since construction
+    public long getPushCount() {
+        return pushCount;
+    }
+
+    public long getPollCount() {
+        return pollCount;
+    }
+
+    // Empty the heap in time proportional to its size
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int pos) {
+        int element = heap[pos];
+        position[element] = -1;
+        size--;
+        if (pos == size) {
+            return;
+        }
+        int last = heap[size];
+        heap[pos] = last;
+        position[last] = pos;
+        if (pos > 0 && keys[last] < keys[heap[(pos - 1) / ARITY]]) {
+            siftUp(pos);
+        } else {
+            siftDown(pos);
+        }
+    }
+
+    private void siftUp(int pos) {
+        int element = heap[pos];
+        long key = keys[element];
+        while (pos > 0) {
+            int parentPos = (pos - 1) / ARITY;
+            int parent = heap[parentPos];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[pos] = parent;
+            position[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int element = heap[pos];
+        long key = keys[element];
+        while (true) {
+            int firstChild = pos * ARITY + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + ARITY, size);
+            int minPos = firstChild;
+            long minKey = keys[heap[firstChild]];
+            for (int c = firstChild + 1; c < lastChild; c++) {
+                long childKey = keys[heap[c]];
+                if (childKey < minKey) {
+                    minKey = childKey;
+                    minPos = c;
+                }
+            }
+            if (minKey >= key) {
+                break;
+            }
+            int child = heap[minPos];
+            heap[pos] = child;
+            position[child] = pos;
+            pos = minPos;
+        }
+        heap[pos] = element;
+        position[element] = pos;
+    }
+}
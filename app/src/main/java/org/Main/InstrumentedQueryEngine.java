@@ -0,0 +1,54 @@
+package org.Main;
+
+// Wraps a query engine and records every query into QueryMetrics, and into a QueryEvent when
+// a flight recording enables them. The search counters are running totals kept in the
+// caller's workspace, so measuring a query costs two reads of them and two clock reads, and
+// threads never share anything but the lock-free metrics.
+public class InstrumentedQueryEngine implements QueryEngine {
+    private final QueryEngine engine;
+    private final QueryMetrics metrics;
+
+    public InstrumentedQueryEngine(QueryEngine engine, String name) {
+        this.engine = engine;
+        this.metrics = new QueryMetrics(name);
+    }
+
+    @Override
+    public QueryResult query(long source, long target, QueryWorkspace workspace) {
+        long pushes = workspace.getHeapPushes();
+        long pops = workspace.getHeapPops();
+        long stalled = workspace.getStalledVertices();
+        long meetings = workspace.getMeetingUpdates();
+
+        QueryEvent event = new QueryEvent();
+        event.begin();
+        long start = System.nanoTime();
+        QueryResult result = engine.query(source, target, workspace);
+        long elapsed = System.nanoTime() - start;
+
+        long popped = workspace.getHeapPops() - pops;
+        long stalledNow = workspace.getStalledVertices() - stalled;
+        metrics.record(elapsed, popped - stalledNow, workspace.getHeapPushes() - pushes, popped, stalledNow,
+                workspace.getMeetingUpdates() - meetings, result);
+
+        if (event.shouldCommit()) {
+            event.engine = metrics.getName();
+            event.source = source;
+            event.target = target;
+            event.distance = result.getShortestPath();
+            event.settledVertices = popped - stalledNow;
+            event.relaxedEdges = result.getRelaxedEdges();
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public QueryWorkspace newWorkspace() {
+        return engine.newWorkspace();
+    }
+
+    public QueryMetrics getMetrics() {
+        return metrics;
+    }
+}
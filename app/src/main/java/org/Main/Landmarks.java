@@ -0,0 +1,325 @@
+package org.Main;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// ALT lower bounds: exact distances from and to a few landmark vertices give, by the triangle
+// inequality, dist(v, t) >= d(L, t) - d(L, v) and dist(v, t) >= d(v, L) - d(t, L). The best
+// of these over all landmarks is a consistent heuristic for A*. Only edge costs enter the
+// preprocessing, so after cost changes the landmarks can simply be recomputed.
+//
+// Distances are stored as ints, interleaved per vertex (v * k + i), so one estimate reads
+// two short runs of memory.
+public class Landmarks implements Heuristic {
+    public static final int MAGIC = 0x4c4d4b53; // "LMKS"
+    public static final int VERSION = 2;
+    static final int HEADER_BYTES = 32;
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    public enum Strategy {
+        // Each landmark is the vertex farthest from the landmarks chosen so far
+        FARTHEST,
+        // Each landmark is a leaf of the shortest-path tree from a random root, in the subtree
+        // where the current landmarks give the weakest bounds
+        AVOID
+    }
+
+    private final int[] landmarks;
+    private final int[] fromLandmark; // d(L_i, v) at v * k + i
+    private final int[] toLandmark;   // d(v, L_i) at v * k + i
+
+    private Landmarks(int[] landmarks, int[] fromLandmark, int[] toLandmark) {
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    // Select k landmarks and compute their distance arrays, running the 2k one-to-all
+    // searches for the final arrays on the given number of threads
+    public static Landmarks select(CSRGraph graph, int k, Strategy strategy, int threads) {
+        int n = graph.getVertexCount();
+        k = Math.min(k, n);
+        SearchSpace space = new SearchSpace(n);
+        Random random = new Random(0); // Fixed seed for a reproducible selection
+
+        int[] chosen = new int[k];
+        int[][] distances = new int[k][];
+        for (int i = 0; i < k; i++) {
+            chosen[i] = strategy == Strategy.FARTHEST
+                    ? nextFarthest(graph, chosen, distances, i, random, space)
+                    : nextAvoid(graph, chosen, distances, i, random, space);
+            Dijkstra.oneToAll(graph, chosen[i], false, space, null);
+            distances[i] = toIntDistances(space, n);
+        }
+        return compute(graph, chosen, threads);
+    }
+
+    // Distance arrays for the given landmark indices, two searches per landmark in parallel
+    public static Landmarks compute(CSRGraph graph, int[] landmarks, int threads) {
+        int n = graph.getVertexCount();
+        int k = landmarks.length;
+        int[] fromLandmark = new int[n * k];
+        int[] toLandmark = new int[n * k];
+        ThreadLocal<SearchSpace> spaces = ThreadLocal.withInitial(() -> new SearchSpace(n));
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            runParallel(pool, 2 * k, job -> {
+                int i = job / 2;
+                boolean backward = job % 2 == 1;
+                SearchSpace space = spaces.get();
+                Dijkstra.oneToAll(graph, landmarks[i], backward, space, null);
+                int[] target = backward ? toLandmark : fromLandmark;
+                int[] distances = toIntDistances(space, n);
+                for (int v = 0; v < n; v++) {
+                    target[v * k + i] = distances[v];
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        return new Landmarks(landmarks.clone(), fromLandmark, toLandmark);
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    // Dense index of landmark i
+    public int getLandmark(int i) {
+        return landmarks[i];
+    }
+
+    @Override
+    public long estimate(int from, int to) {
+        int k = landmarks.length;
+        int fromBase = from * k;
+        int toBase = to * k;
+        long best = 0;
+        for (int i = 0; i < k; i++) {
+            int landmarkToFrom = fromLandmark[fromBase + i];
+            int landmarkToTo = fromLandmark[toBase + i];
+            if (landmarkToTo != UNREACHABLE) {
+                if (landmarkToFrom != UNREACHABLE) {
+                    best = Math.max(best, landmarkToTo - landmarkToFrom);
+                }
+            } else if (landmarkToFrom != UNREACHABLE) {
+                return UNREACHABLE; // L reaches from but not to, so from cannot reach to
+            }
+
+            int fromToLandmark = toLandmark[fromBase + i];
+            int toToLandmark = toLandmark[toBase + i];
+            if (fromToLandmark != UNREACHABLE) {
+                if (toToLandmark != UNREACHABLE) {
+                    best = Math.max(best, fromToLandmark - toToLandmark);
+                }
+            } else if (toToLandmark != UNREACHABLE) {
+                return UNREACHABLE; // to reaches L but from does not, so from cannot reach to
+            }
+        }
+        return best;
+    }
+
+    // Save in the same style as GraphSnapshot: header with the fingerprint of the graph and
+    // a CRC32 of the payload, then long[k] landmark ids, int[n * k] distances from and
+    // int[n * k] distances to the landmarks
+    public void write(CSRGraph graph, Path path) throws IOException {
+        int n = graph.getVertexCount();
+        int k = landmarks.length;
+        CRC32 crc = new CRC32();
+        try (OutputStream file = Files.newOutputStream(path)) {
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(n);
+            header.writeInt(k);
+            header.writeLong(HierarchySnapshot.fingerprint(graph));
+            header.writeLong(0L); // Checksum is patched in below
+            header.flush();
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+            for (int landmark : landmarks) out.writeLong(graph.getId(landmark));
+            for (int d : fromLandmark) out.writeInt(d);
+            for (int d : toLandmark) out.writeInt(d);
+            out.flush();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(HEADER_BYTES - 8);
+            file.writeLong(crc.getValue());
+        }
+    }
+
+    // Load landmarks saved for this graph; throws IOException if the file belongs to another
+    // graph, including the same graph with different edge costs
+    public static Landmarks read(CSRGraph graph, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = GraphSnapshot.map(channel, path);
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a landmark file: " + path);
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported landmark file version " + version + " in " + path);
+            }
+            int n = buffer.getInt(8);
+            int k = buffer.getInt(12);
+            long expectedSize = HEADER_BYTES + 8L * k + 2L * 4 * n * k;
+            if (n != graph.getVertexCount() || k < 0 || channel.size() != expectedSize) {
+                throw new IOException("Landmark file " + path + " does not match a graph with "
+                        + graph.getVertexCount() + " vertices");
+            }
+            if (buffer.getLong(16) != HierarchySnapshot.fingerprint(graph)) {
+                throw new IOException("Landmark file " + path + " was computed for a different graph");
+            }
+            GraphSnapshot.verifyChecksum(buffer, HEADER_BYTES, buffer.getLong(24), path);
+
+            buffer.position(HEADER_BYTES);
+            long[] ids = GraphSnapshot.readLongs(buffer, k);
+            int[] landmarks = new int[k];
+            for (int i = 0; i < k; i++) {
+                landmarks[i] = graph.getIndex(ids[i]);
+                if (landmarks[i] < 0) {
+                    throw new IOException("Landmark " + ids[i] + " in " + path + " is not in the graph");
+                }
+            }
+            int[] fromLandmark = GraphSnapshot.readInts(buffer, n * k);
+            int[] toLandmark = GraphSnapshot.readInts(buffer, n * k);
+            return new Landmarks(landmarks, fromLandmark, toLandmark);
+        }
+    }
+
+    // Vertex that maximises the distance to the nearest chosen landmark; the first landmark
+    // is the vertex farthest from a random start
+    private static int nextFarthest(CSRGraph graph, int[] chosen, int[][] distances, int count, Random random,
+                                    SearchSpace space) {
+        int n = graph.getVertexCount();
+        if (count == 0) {
+            Dijkstra.oneToAll(graph, random.nextInt(n), false, space, null);
+            int farthest = 0;
+            for (int v = 1; v < n; v++) {
+                if (space.getDistance(v) != Long.MAX_VALUE
+                        && (space.getDistance(farthest) == Long.MAX_VALUE || space.getDistance(v) > space.getDistance(farthest))) {
+                    farthest = v;
+                }
+            }
+            return farthest;
+        }
+
+        int best = -1;
+        long bestDistance = -1;
+        for (int v = 0; v < n; v++) {
+            long nearest = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                if (distances[i][v] != UNREACHABLE) nearest = Math.min(nearest, distances[i][v]);
+            }
+            if (nearest != Long.MAX_VALUE && nearest > bestDistance) {
+                best = v;
+                bestDistance = nearest;
+            }
+        }
+        return bestDistance > 0 ? best : unchosenVertex(chosen, count, n, random);
+    }
+
+    // Grow a shortest-path tree from a random root and weight every vertex by how much its
+    // distance exceeds the current lower bound. Subtrees that already hold a landmark count
+    // as zero. From the heaviest vertex, follow the heaviest child down to a leaf.
+    private static int nextAvoid(CSRGraph graph, int[] chosen, int[][] distances, int count, Random random,
+                                 SearchSpace space) {
+        int n = graph.getVertexCount();
+        int root = random.nextInt(n);
+        int[] order = new int[n];
+        int settled = Dijkstra.oneToAll(graph, root, false, space, order);
+
+        boolean[] isLandmark = new boolean[n];
+        for (int i = 0; i < count; i++) isLandmark[chosen[i]] = true;
+
+        long[] size = new long[n];
+        boolean[] holdsLandmark = new boolean[n];
+        int[] heaviestChild = new int[n];
+        Arrays.fill(heaviestChild, -1);
+        int heaviest = root;
+
+        // Children are settled after their parent, so reverse settle order visits subtrees bottom-up
+        for (int j = settled - 1; j >= 0; j--) {
+            int v = order[j];
+            long dist = space.getDistance(v);
+            long bound = 0;
+            for (int i = 0; i < count; i++) {
+                int toV = distances[i][v];
+                int toRoot = distances[i][root];
+                if (toV != UNREACHABLE && toRoot != UNREACHABLE) bound = Math.max(bound, toV - toRoot);
+            }
+            size[v] += dist - bound;
+            if (isLandmark[v]) holdsLandmark[v] = true;
+            if (holdsLandmark[v]) size[v] = 0;
+            if (size[v] > size[heaviest]) heaviest = v;
+
+            int parent = space.getParent(v);
+            if (parent >= 0) {
+                size[parent] += size[v];
+                holdsLandmark[parent] |= holdsLandmark[v];
+                if (size[v] > 0 && (heaviestChild[parent] < 0 || size[v] > size[heaviestChild[parent]])) {
+                    heaviestChild[parent] = v;
+                }
+            }
+        }
+
+        if (size[heaviest] == 0) {
+            return unchosenVertex(chosen, count, n, random);
+        }
+        int leaf = heaviest;
+        while (heaviestChild[leaf] >= 0) {
+            leaf = heaviestChild[leaf];
+        }
+        return leaf;
+    }
+
+    private static int unchosenVertex(int[] chosen, int count, int n, Random random) {
+        while (true) {
+            int v = random.nextInt(n);
+            boolean taken = false;
+            for (int i = 0; i < count; i++) taken |= chosen[i] == v;
+            if (!taken) return v;
+        }
+    }
+
+    private static int[] toIntDistances(SearchSpace space, int n) {
+        int[] distances = new int[n];
+        for (int v = 0; v < n; v++) {
+            long dist = space.getDistance(v);
+            if (dist != Long.MAX_VALUE && dist >= UNREACHABLE) {
+                throw new IllegalStateException("Landmark distance " + dist + " does not fit in an int");
+            }
+            distances[v] = dist == Long.MAX_VALUE ? UNREACHABLE : (int) dist;
+        }
+        return distances;
+    }
+
+    private static void runParallel(ForkJoinPool pool, int count, IntConsumer body) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Landmark preprocessing was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Landmark preprocessing failed", e.getCause());
+        }
+    }
+}
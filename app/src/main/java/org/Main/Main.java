@@ -1,6 +1,11 @@
 package org.Main;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 
 public class Main {
@@ -12,7 +17,7 @@ public class Main {
 
         // Perform the preprocessing phase (i.e., contraction)
         long start = System.nanoTime();
-        contractionHierarchy.preprocess();  // This method will contract nodes and add shortcut edges
+        contractionHierarchy.preprocessParallel(Runtime.getRuntime().availableProcessors());  // Contracts independent vertices concurrently
         long end = System.nanoTime();
         double contractionTimeInSeconds = (end - start) / 1_000_000_000.0; // Convert to seconds
         System.out.println("Contraction time (s): " + contractionTimeInSeconds);
@@ -23,25 +28,98 @@ public class Main {
         return contractionHierarchy; // Return the ContractionHierarchy for further usage
     }
 
+    // Load the graph snapshot if it was built from the current text file, or parse the text
+    // file once and save a snapshot
+    private static CSRGraph loadOrBuildGraph(Path graphFile, Path snapshotFile) throws IOException {
+        long sourceChecksum = GraphSnapshot.sourceChecksum(graphFile);
+        if (Files.exists(snapshotFile)) {
+            try {
+                if (GraphSnapshot.readHeader(snapshotFile).getSourceChecksum() == sourceChecksum) {
+                    long start = System.nanoTime();
+                    CSRGraph graph = GraphSnapshot.open(snapshotFile);
+                    long end = System.nanoTime();
+                    System.out.println("Loaded graph snapshot from " + snapshotFile + " (ms): " + (end - start) / 1_000_000.0);
+                    return graph;
+                }
+                System.out.println("Rebuilding graph snapshot: " + graphFile + " has changed");
+            } catch (IOException e) {
+                System.out.println("Rebuilding graph snapshot: " + e.getMessage());
+            }
+        }
+
+        // Parse the mapped text file on all cores
+        MappedGraphReader.LoadResult loaded = MappedGraphReader.readWithStats(graphFile, Runtime.getRuntime().availableProcessors());
+        System.out.println(loaded);
+        GraphSnapshot.write(loaded.getGraph(), sourceChecksum, snapshotFile);
+        System.out.println("Saved graph snapshot to " + snapshotFile);
+        return loaded.getGraph();
+    }
+
+    // Load a previously saved hierarchy if it was built from this graph, or contract the
+    // graph once and save the result
+    private static CHGraph loadOrBuildHierarchy(Graph graph, CSRGraph csrGraph, Path hierarchyFile) throws IOException {
+        long fingerprint = HierarchySnapshot.fingerprint(csrGraph);
+        if (Files.exists(hierarchyFile)) {
+            try {
+                long start = System.nanoTime();
+                CHGraph hierarchy = HierarchySnapshot.open(hierarchyFile, fingerprint);
+                long end = System.nanoTime();
+                System.out.println("Loaded contraction hierarchy from " + hierarchyFile + " (ms): " + (end - start) / 1_000_000.0);
+                return hierarchy;
+            } catch (IOException e) {
+                System.out.println("Rebuilding contraction hierarchy: " + e.getMessage());
+            }
+        }
+
+        CHGraph hierarchy = contractionPhase(graph).getCHGraph();
+        HierarchySnapshot.write(hierarchy, fingerprint, hierarchyFile);
+        System.out.println("Saved contraction hierarchy to " + hierarchyFile);
+        return hierarchy;
+    }
+
+    // Load saved landmarks if they were computed for this graph, or select them in parallel
+    // and save them
+    private static Landmarks loadOrSelectLandmarks(CSRGraph graph, Path landmarkFile) throws IOException {
+        if (Files.exists(landmarkFile)) {
+            try {
+                return Landmarks.read(graph, landmarkFile);
+            } catch (IOException e) {
+                System.out.println("Reselecting landmarks: " + e.getMessage());
+            }
+        }
+
+        long start = System.nanoTime();
+        Landmarks landmarks = Landmarks.select(graph, 16, Landmarks.Strategy.AVOID, Runtime.getRuntime().availableProcessors());
+        long end = System.nanoTime();
+        System.out.println("Selected " + landmarks.getLandmarkCount() + " landmarks (ms): " + (end - start) / 1_000_000.0);
+        landmarks.write(graph, landmarkFile);
+        return landmarks;
+    }
+
     public static void main(String[] args) {
         try {
-            InputStream inputStream = Main.class.getClassLoader().getResourceAsStream("denmark.graph");
-            if (inputStream == null) {
+            URL resource = Main.class.getClassLoader().getResource("denmark.graph");
+            if (resource == null) {
                 throw new IllegalArgumentException("File not found in resources: denmark.graph");
             }
 
-            Graph graph = Graph.readGraphFromInput(inputStream);
+            // Build the object graph for the algorithms that still work on Graph
+            CSRGraph csrGraph = loadOrBuildGraph(Paths.get(resource.toURI()), Paths.get("denmark.snapshot"));
+            Graph graph = csrGraph.toGraph();
+
+            // Dense vertex numbering used to turn random indices into real vertex ids
+            VertexIdMap idMap = csrGraph.getIdMap();
 
             // Generate random pairs 
             int numVertices = graph.getVertices().size();
             List<int[]> pairs = RandomPairs.generateRandomPairs(1000, numVertices, 314159);
             int queryCount = pairs.size();
 
-            // Perform the contraction phase (preprocessing)
-            ContractionHierarchy contractionHierarchy = contractionPhase(graph);
+            // Perform the contraction phase (preprocessing), or load its saved result
+            CHGraph hierarchy = loadOrBuildHierarchy(graph, csrGraph, Paths.get("denmark.ch"));
 
-            // Use the augmented graph (with shortcuts) for bidirectional Dijkstra
-            Graph augmentedGraph = contractionHierarchy.getAugmentedGraph();
+            // Upward-only CH queries reuse one workspace for all pairs
+            QueryWorkspace workspace = new QueryWorkspace(hierarchy);
 
             // Compare performance of algorithms
 System.out.println("Comparing performance of algorithms...");
@@ -52,8 +130,8 @@ long unoptimizedTotalQueryTime = 0;
 long unoptimizedTotalRelaxedEdges = 0;
 
 for (int[] pair : pairs) {
-    int source = pair[0];
-    int target = pair[1];
+    long source = idMap.getId(pair[0]);
+    long target = idMap.getId(pair[1]);
 
     long start = System.nanoTime();
     QueryResult result = Dijkstra.dijkstra(graph, source, target);
@@ -75,8 +153,8 @@ for (int[] pair : pairs) {
     long bidirectionalTotalRelaxedEdges = 0;
 
     for (int[] pair : pairs) {
-        int source = pair[0];
-        int target = pair[1];
+        long source = idMap.getId(pair[0]);
+        long target = idMap.getId(pair[1]);
 
         long start = System.nanoTime();
         QueryResult result = BidirectionalDijkstra.bidirectionalDijkstra(graph , source, target);
@@ -98,11 +176,11 @@ for (int[] pair : pairs) {
         long bidirectionalCHTotalRelaxedEdges = 0;
 
         for (int[] pair : pairs) {
-            int source = pair[0];
-            int target = pair[1];
+            long source = idMap.getId(pair[0]);
+            long target = idMap.getId(pair[1]);
 
             long start = System.nanoTime();
-            QueryResult result = BidirectionalDijkstraCH.bidirectionalDijkstra(augmentedGraph, source, target);
+            QueryResult result = BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, source, target, workspace);
             long end = System.nanoTime();
 
             bidirectionalCHTotalQueryTime += (end - start);
@@ -115,6 +193,118 @@ for (int[] pair : pairs) {
         System.out.println("Average query time (ms): " + bidirectionalCHAvgTime);
         System.out.println("Average number of relaxed edges: " + bidirectionalCHAvgRelaxedEdges);
 
+        // Same queries returning the unpacked route, to show the cost of path unpacking
+        long routeTotalQueryTime = 0;
+        long routeTotalVertices = 0;
+        for (int[] pair : pairs) {
+            long start = System.nanoTime();
+            Route route = BidirectionalDijkstraCH.shortestPath(hierarchy, idMap.getId(pair[0]), idMap.getId(pair[1]), workspace);
+            long end = System.nanoTime();
+
+            routeTotalQueryTime += (end - start);
+            routeTotalVertices += route.size();
+        }
+        System.out.println("Average query time with route unpacking (ms): " + routeTotalQueryTime / 1_000_000.0 / queryCount);
+        System.out.println("Average number of route vertices: " + routeTotalVertices / (double) queryCount);
+
+        // Distance matrix between the first 100 sources and targets with the bucket engine
+        int matrixSize = Math.min(100, queryCount);
+        long[] matrixSources = new long[matrixSize];
+        long[] matrixTargets = new long[matrixSize];
+        for (int i = 0; i < matrixSize; i++) {
+            matrixSources[i] = idMap.getId(pairs.get(i)[0]);
+            matrixTargets[i] = idMap.getId(pairs.get(i)[1]);
+        }
+        long matrixStart = System.nanoTime();
+        ManyToManyCH.distanceMatrix(hierarchy, matrixSources, matrixTargets, Runtime.getRuntime().availableProcessors());
+        long matrixEnd = System.nanoTime();
+        System.out.println(matrixSize + "x" + matrixSize + " CH distance matrix (ms): " + (matrixEnd - matrixStart) / 1_000_000.0);
+
+        // One-to-all distances from the first sources, one at a time and in a batch of 16
+        PHAST phast = new PHAST(hierarchy);
+        long phastStart = System.nanoTime();
+        phast.distancesFrom(matrixSources[0]);
+        long phastEnd = System.nanoTime();
+        phast.distancesFrom(Arrays.copyOf(matrixSources, Math.min(16, matrixSize)));
+        long phastBatchEnd = System.nanoTime();
+        System.out.println("PHAST one-to-all (ms): " + (phastEnd - phastStart) / 1_000_000.0
+                + ", batch of " + Math.min(16, matrixSize) + " sources (ms): " + (phastBatchEnd - phastEnd) / 1_000_000.0);
+
+        // Restricted sweeps towards a fixed target set, selected once and reused for every source
+        long rphastStart = System.nanoTime();
+        RPHAST rphast = new RPHAST(hierarchy, matrixTargets);
+        long rphastSelected = System.nanoTime();
+        for (long source : matrixSources) {
+            rphast.distancesFrom(source);
+        }
+        long rphastEnd = System.nanoTime();
+        System.out.println("RPHAST target selection (ms): " + (rphastSelected - rphastStart) / 1_000_000.0
+                + " (" + rphast.getSelectedVertexCount() + " vertices), " + matrixSize + " sources (ms): "
+                + (rphastEnd - rphastSelected) / 1_000_000.0);
+
+        // Metric-independent preprocessing once, then a customization per traffic update
+        long cchStart = System.nanoTime();
+        CustomizableContractionHierarchy cch = new CustomizableContractionHierarchy(csrGraph);
+        long cchBuilt = System.nanoTime();
+        cch.customize(Runtime.getRuntime().availableProcessors());
+        long cchCustomized = System.nanoTime();
+        int[] trafficCost = new int[csrGraph.getEdgeCount()];
+        for (int e = 0; e < trafficCost.length; e++) {
+            trafficCost[e] = e % 10 == 0 ? csrGraph.getCost(e) * 2 : csrGraph.getCost(e);
+        }
+        cch.customize(trafficCost, Runtime.getRuntime().availableProcessors());
+        long cchRecustomized = System.nanoTime();
+        System.out.println("CCH ordering and topology (ms): " + (cchBuilt - cchStart) / 1_000_000.0
+                + " (" + cch.getArcCount() + " arcs, " + cch.getLevelCount() + " levels), customization (ms): "
+                + (cchCustomized - cchBuilt) / 1_000_000.0 + ", traffic update (ms): "
+                + (cchRecustomized - cchCustomized) / 1_000_000.0);
+
+        // The same pairs as concurrent batches on platform threads and on virtual threads
+        long[] batchSources = new long[queryCount];
+        long[] batchTargets = new long[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            batchSources[i] = idMap.getId(pairs.get(i)[0]);
+            batchTargets[i] = idMap.getId(pairs.get(i)[1]);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        try (BatchQueryExecutor platform = BatchQueryExecutor.platformThreads(threads);
+             BatchQueryExecutor virtual = BatchQueryExecutor.virtualThreads()) {
+            GeoHeuristic heuristic = new GeoHeuristic(csrGraph);
+            Landmarks landmarks = loadOrSelectLandmarks(csrGraph, Paths.get("denmark.landmarks"));
+            QueryEngine[] engines = {QueryEngine.dijkstra(csrGraph), QueryEngine.bidirectional(csrGraph),
+                    QueryEngine.aStar(csrGraph, heuristic), QueryEngine.bidirectionalAStar(csrGraph, heuristic),
+                    QueryEngine.bidirectionalAStar(csrGraph, landmarks), QueryEngine.contractionHierarchy(hierarchy)};
+            String[] engineNames = {"Dijkstra", "Bidirectional Dijkstra", "A*", "Bidirectional A*",
+                    "ALT", "Bidirectional CH Dijkstra"};
+            for (int i = 0; i < engines.length; i++) {
+                System.out.println(engineNames[i] + " batch on " + threads + " platform threads: "
+                        + platform.execute(engines[i], batchSources, batchTargets));
+                System.out.println(engineNames[i] + " batch on virtual threads: "
+                        + virtual.execute(engines[i], batchSources, batchTargets));
+            }
+
+            // Repeated traffic: the second pass over the same pairs is answered from the cache
+            CachedQueryEngine cached = new CachedQueryEngine(QueryEngine.contractionHierarchy(hierarchy), 100_000);
+            System.out.println("Cached CH batch, first pass: " + platform.execute(cached, batchSources, batchTargets));
+            System.out.println("Cached CH batch, second pass: " + platform.execute(cached, batchSources, batchTargets)
+                    + ", hit rate " + cached.getHitRate());
+
+            // The saved hierarchy mapped into off-heap memory answers the same batch
+            try (OffHeapStorage storage = new OffHeapStorage()) {
+                CHGraph mapped = storage.mapHierarchySnapshot(Paths.get("denmark.ch"));
+                System.out.println("Off-heap CH batch (" + storage.getMappedBytes() / (1 << 20) + " MB mapped): "
+                        + platform.execute(QueryEngine.contractionHierarchy(mapped), batchSources, batchTargets));
+            }
+
+            // Latency percentiles and search counters per engine
+            System.out.println(QueryMetrics.csvHeader());
+            for (int i = 0; i < engines.length; i++) {
+                InstrumentedQueryEngine instrumented = new InstrumentedQueryEngine(engines[i], engineNames[i]);
+                platform.execute(instrumented, batchSources, batchTargets);
+                System.out.println(instrumented.getMetrics().toCsvRow());
+            }
+        }
+
 
         // Report comparative results
         System.out.println("Performance comparison:");
@@ -0,0 +1,149 @@
+package org.Main;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Bucket-based many-to-many distances on a contraction hierarchy. One backward upward
+// search per target leaves (target, distance) entries in a bucket at every vertex it
+// settles; one forward upward search per source then combines its distances with the
+// buckets of the vertices it settles. This costs |S| + |T| upward searches instead of
+// |S| * |T| point-to-point queries.
+public class ManyToManyCH {
+
+    public static long[][] distanceMatrix(CHGraph hierarchy, long[] sources, long[] targets) {
+        return distanceMatrix(hierarchy, sources, targets, 1);
+    }
+
+    // Distance matrix with rows for sources and columns for targets, -1 where a target is
+    // unreachable or an id is unknown. Both phases are split across the given threads.
+    public static long[][] distanceMatrix(CHGraph hierarchy, long[] sources, long[] targets, int threads) {
+        int n = hierarchy.getVertexCount();
+        ThreadLocal<SearchSpace> spaces = ThreadLocal.withInitial(() -> new SearchSpace(n));
+        ThreadLocal<int[]> settledBuffers = ThreadLocal.withInitial(() -> new int[n]);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            // Backward searches, one per target
+            int[][] bucketVertices = new int[targets.length][];
+            long[][] bucketDistances = new long[targets.length][];
+            runParallel(pool, targets.length, j -> {
+                int t = hierarchy.getIndex(targets[j]);
+                if (t < 0) {
+                    bucketVertices[j] = new int[0];
+                    bucketDistances[j] = new long[0];
+                    return;
+                }
+                SearchSpace space = spaces.get();
+                int[] settled = settledBuffers.get();
+                int count = upwardSearch(hierarchy, space, t, false, settled);
+                bucketVertices[j] = Arrays.copyOf(settled, count);
+                bucketDistances[j] = new long[count];
+                for (int i = 0; i < count; i++) {
+                    bucketDistances[j][i] = space.getDistance(settled[i]);
+                }
+            });
+            Buckets buckets = new Buckets(n, bucketVertices, bucketDistances);
+
+            // Forward searches, one per source, each filling its own row
+            long[][] matrix = new long[sources.length][targets.length];
+            runParallel(pool, sources.length, i -> {
+                long[] row = matrix[i];
+                Arrays.fill(row, Long.MAX_VALUE);
+                int s = hierarchy.getIndex(sources[i]);
+                if (s >= 0) {
+                    SearchSpace space = spaces.get();
+                    int[] settled = settledBuffers.get();
+                    int count = upwardSearch(hierarchy, space, s, true, settled);
+                    for (int k = 0; k < count; k++) {
+                        int v = settled[k];
+                        long distV = space.getDistance(v);
+                        for (int b = buckets.start[v]; b < buckets.start[v + 1]; b++) {
+                            long dist = distV + buckets.distance[b];
+                            if (dist < row[buckets.target[b]]) {
+                                row[buckets.target[b]] = dist;
+                            }
+                        }
+                    }
+                }
+                for (int j = 0; j < row.length; j++) {
+                    if (row[j] == Long.MAX_VALUE) row[j] = -1;
+                }
+            });
+            return matrix;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Complete upward search from start (forward over upward edges, backward over downward
+    // edges) with stall-on-demand. Writes the vertices settled without being stalled into
+    // settled and returns their number; their distances are left in space.
+    static int upwardSearch(CHGraph hierarchy, SearchSpace space, int start, boolean forward, int[] settled) {
+        space.reset();
+        IndexedHeap heap = space.getHeap();
+        space.setDistance(start, 0L, -1);
+        heap.push(start, 0L);
+
+        int count = 0;
+        while (!heap.isEmpty()) {
+            long distU = heap.peekKey();
+            int u = heap.poll();
+            if (BidirectionalDijkstraCH.isStalled(hierarchy, space, u, distU, forward)) {
+                continue;
+            }
+            settled[count++] = u;
+
+            int begin = forward ? hierarchy.getUpStart(u) : hierarchy.getDownStart(u);
+            int end = forward ? hierarchy.getUpEnd(u) : hierarchy.getDownEnd(u);
+            for (int e = begin; e < end; e++) {
+                int v = forward ? hierarchy.getUpTarget(e) : hierarchy.getDownSource(e);
+                long newDist = distU + (forward ? hierarchy.getUpCost(e) : hierarchy.getDownCost(e));
+                if (newDist < space.getDistance(v)) {
+                    space.setDistance(v, newDist, u);
+                    heap.push(v, newDist);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void runParallel(ForkJoinPool pool, int count, IntConsumer body) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Distance matrix computation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Distance matrix computation failed", e.getCause());
+        }
+    }
+
+    // Bucket entries of all vertices in CSR form: entries of v are start[v] .. start[v + 1] - 1
+    private static class Buckets {
+        private final int[] start;
+        private final int[] target;
+        private final long[] distance;
+
+        Buckets(int vertexCount, int[][] vertices, long[][] distances) {
+            start = new int[vertexCount + 1];
+            for (int[] list : vertices) {
+                for (int v : list) start[v + 1]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                start[v + 1] += start[v];
+            }
+            target = new int[start[vertexCount]];
+            distance = new long[start[vertexCount]];
+            int[] next = Arrays.copyOf(start, vertexCount);
+            for (int j = 0; j < vertices.length; j++) {
+                for (int i = 0; i < vertices[j].length; i++) {
+                    int slot = next[vertices[j][i]]++;
+                    target[slot] = j;
+                    distance[slot] = distances[j][i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package org.Main;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Loads the text graph format into a CSRGraph by memory-mapping the file and parsing
+// numbers straight from the bytes, without creating a String per line or token.
+// The edge section can be split into newline-aligned chunks parsed by several threads.
+public class MappedGraphReader {
+    private final MappedByteBuffer buffer;
+    private final int limit;
+    private int pos;
+
+    private MappedGraphReader(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+    }
+
+    public static CSRGraph read(Path path) throws IOException {
+        return read(path, 1);
+    }
+
+    public static CSRGraph read(Path path, int threads) throws IOException {
+        return readWithStats(path, threads).getGraph();
+    }
+
+    // Load the graph and report how long each phase took
+    public static LoadResult readWithStats(Path path, int threads) throws IOException {
+        GraphLoadEvent event = new GraphLoadEvent();
+        event.begin();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Graph file larger than 2 GB cannot be mapped in one buffer: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            LoadResult result = new MappedGraphReader(buffer).parse(Math.max(1, threads));
+            event.report("mapped text", path, result.getGraph().getVertexCount(), result.getGraph().getEdgeCount());
+            return result;
+        }
+    }
+
+    private LoadResult parse(int threads) throws IOException {
+        long start = System.nanoTime();
+        int n = parseInt("vertex count", 0);
+        int m = parseInt("edge count", 0);
+
+        // Read vertices, numbered in input order
+        VertexIdMap idMap = new VertexIdMap(n);
+        double[] longitude = new double[n];
+        double[] latitude = new double[n];
+        for (int i = 0; i < n; i++) {
+            int v = idMap.add(parseLong());
+            longitude[v] = parseDouble();
+            latitude[v] = parseDouble();
+        }
+        long verticesDone = System.nanoTime();
+
+        // Read edges
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] cost = new int[m];
+        if (threads == 1 || m < threads * 1024) {
+            parseEdges(pos, limit, 0, m, idMap, from, to, cost);
+        } else {
+            parseEdgesParallel(threads, m, idMap, from, to, cost);
+        }
+        long edgesDone = System.nanoTime();
+
+        CSRGraph graph = new CSRGraph(idMap, longitude, latitude, from, to, cost, m);
+        long built = System.nanoTime();
+
+        return new LoadResult(graph, (verticesDone - start) / 1_000_000, (edgesDone - verticesDone) / 1_000_000,
+                (built - edgesDone) / 1_000_000);
+    }
+
+    private void parseEdgesParallel(int threads, int m, VertexIdMap idMap, int[] from, int[] to, int[] cost)
+            throws IOException {
+        // Split the edge section at line boundaries
+        int[] bounds = new int[threads + 1];
+        bounds[0] = pos;
+        bounds[threads] = limit;
+        long sectionLength = limit - pos;
+        for (int i = 1; i < threads; i++) {
+            int b = Math.max(bounds[i - 1], (int) (pos + sectionLength * i / threads));
+            while (b < limit && buffer.get(b) != '\n') {
+                b++;
+            }
+            bounds[i] = Math.min(b + 1, limit);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Count the lines of every chunk to find where its edges start
+            List<Future<Integer>> counts = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int chunkStart = bounds[i];
+                int chunkEnd = bounds[i + 1];
+                counts.add(executor.submit(() -> countLines(chunkStart, chunkEnd)));
+            }
+            int[] firstEdge = new int[threads + 1];
+            for (int i = 0; i < threads; i++) {
+                firstEdge[i + 1] = Math.min(m, firstEdge[i] + counts.get(i).get());
+            }
+
+            List<Future<Void>> parsed = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int chunkStart = bounds[i];
+                int chunkEnd = bounds[i + 1];
+                int edgeStart = firstEdge[i];
+                int edgeEnd = firstEdge[i + 1];
+                parsed.add(executor.submit(() -> {
+                    new MappedGraphReader(buffer).parseEdges(chunkStart, chunkEnd, edgeStart, edgeEnd, idMap, from, to, cost);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : parsed) {
+                future.get();
+            }
+            if (firstEdge[threads] != m) {
+                throw new IOException("Expected " + m + " edges but found " + firstEdge[threads]);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing edges", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to parse edges", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Non-empty lines in [start, end)
+    private int countLines(int start, int end) {
+        int lines = 0;
+        boolean inLine = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                if (inLine) lines++;
+                inLine = false;
+            } else if (b > ' ') {
+                inLine = true;
+            }
+        }
+        return inLine ? lines + 1 : lines;
+    }
+
+    // Parse edges edgeStart..edgeEnd-1 from the bytes in [start, end)
+    private void parseEdges(int start, int end, int edgeStart, int edgeEnd, VertexIdMap idMap,
+                            int[] from, int[] to, int[] cost) throws IOException {
+        pos = start;
+        for (int i = edgeStart; i < edgeEnd; i++) {
+            from[i] = vertexIndex(idMap, parseLong());
+            to[i] = vertexIndex(idMap, parseLong());
+            cost[i] = parseInt("edge cost", 0);
+        }
+        if (pos > end) {
+            throw new IOException("Edge lines do not match the edge count in the header");
+        }
+    }
+
+    private static int vertexIndex(VertexIdMap idMap, long id) throws IOException {
+        int index = idMap.getIndex(id);
+        if (index < 0) {
+            throw new IOException("Edge refers to unknown vertex " + id);
+        }
+        return index;
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (pos < limit && buffer.get(pos) <= ' ') {
+            pos++;
+        }
+        if (pos >= limit) {
+            throw new IOException("Unexpected end of graph file");
+        }
+    }
+
+    // Integer token that must lie in [min, Integer.MAX_VALUE]
+    private int parseInt(String what, int min) throws IOException {
+        int start = pos;
+        long value = parseLong();
+        if (value < min || value > Integer.MAX_VALUE) {
+            throw new IOException("The " + what + " " + value + " on line " + lineAt(start) + " is out of range");
+        }
+        return (int) value;
+    }
+
+    private long parseLong() throws IOException {
+        skipWhitespace();
+        int start = pos;
+        boolean negative = buffer.get(pos) == '-';
+        if (negative) pos++;
+        long value = 0;
+        int digits = 0;
+        while (pos < limit) {
+            int d = buffer.get(pos) - '0';
+            if (d < 0 || d > 9) break;
+            if (value > (Long.MAX_VALUE - d) / 10) {
+                throw new IOException("Number too large on line " + lineAt(start));
+            }
+            value = value * 10 + d;
+            pos++;
+            digits++;
+        }
+        if (digits == 0) {
+            throw new IOException("Expected a number on line " + lineAt(start));
+        }
+        expectDelimiter(start);
+        return negative ? -value : value;
+    }
+
+    // A number must end at whitespace or at the end of the file, so "10-5" is not two numbers
+    private void expectDelimiter(int start) throws IOException {
+        if (pos < limit && buffer.get(pos) > ' ') {
+            throw new IOException("Unexpected character '" + (char) buffer.get(pos) + "' in a number on line " + lineAt(start));
+        }
+    }
+
+    // 1-based line of a byte offset, only computed for error messages
+    private int lineAt(int offset) {
+        int line = 1;
+        for (int i = 0; i < offset && i < limit; i++) {
+            if (buffer.get(i) == '\n') line++;
+        }
+        return line;
+    }
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    // Decimal number with optional sign, fraction and exponent
+    private double parseDouble() throws IOException {
+        skipWhitespace();
+        int start = pos;
+        boolean negative = buffer.get(pos) == '-';
+        if (negative || buffer.get(pos) == '+') pos++;
+
+        long mantissa = 0;
+        int digits = 0;
+        int mantissaDigits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == '.' && !fraction) {
+                fraction = true;
+            } else if (b >= '0' && b <= '9') {
+                mantissaDigits++;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (fraction) scale--;
+                } else if (!fraction) {
+                    scale++; // Drop digits beyond long precision
+                }
+            } else {
+                break;
+            }
+            pos++;
+        }
+        if (mantissaDigits == 0) {
+            throw new IOException("Expected a number on line " + lineAt(start));
+        }
+        if (pos < limit && (buffer.get(pos) == 'e' || buffer.get(pos) == 'E')) {
+            pos++;
+            scale += parseExponent(start);
+        }
+        expectDelimiter(start);
+
+        double value;
+        if (scale == 0) {
+            value = mantissa;
+        } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else if (scale > 0 && scale < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else {
+            value = mantissa * Math.pow(10, scale);
+        }
+        return negative ? -value : value;
+    }
+
+    // Exponent digits must follow e/E and the optional sign directly, without whitespace
+    private int parseExponent(int start) throws IOException {
+        boolean negative = pos < limit && buffer.get(pos) == '-';
+        if (negative || (pos < limit && buffer.get(pos) == '+')) pos++;
+        int value = 0;
+        int digits = 0;
+        while (pos < limit) {
+            int d = buffer.get(pos) - '0';
+            if (d < 0 || d > 9) break;
+            value = Math.min(value * 10 + d, 10_000); // Far beyond the range of a double
+            pos++;
+            digits++;
+        }
+        if (digits == 0) {
+            throw new IOException("Expected exponent digits on line " + lineAt(start));
+        }
+        return negative ? -value : value;
+    }
+
+    // Loaded graph plus a breakdown of the load time
+    public static class LoadResult {
+        private final CSRGraph graph;
+        private final long vertexMillis;
+        private final long edgeMillis;
+        private final long buildMillis;
+
+        LoadResult(CSRGraph graph, long vertexMillis, long edgeMillis, long buildMillis) {
+            this.graph = graph;
+            this.vertexMillis = vertexMillis;
+            this.edgeMillis = edgeMillis;
+            this.buildMillis = buildMillis;
+        }
+
+        public CSRGraph getGraph() {
+            return graph;
+        }
+
+        public long getVertexMillis() {
+            return vertexMillis;
+        }
+
+        public long getEdgeMillis() {
+            return edgeMillis;
+        }
+
+        public long getBuildMillis() {
+            return buildMillis;
+        }
+
+        public long getTotalMillis() {
+            return vertexMillis + edgeMillis + buildMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Loaded " + graph.getVertexCount() + " vertices and " + graph.getEdgeCount() + " edges in "
+                    + getTotalMillis() + " ms (vertices " + vertexMillis + " ms, edges " + edgeMillis
+                    + " ms, CSR build " + buildMillis + " ms)";
+        }
+    }
+}
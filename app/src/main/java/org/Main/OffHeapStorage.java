@@ -0,0 +1,281 @@
+package org.Main;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.CRC32;
+
+// Keeps the arrays of CSRGraph and CHGraph outside the Java heap, in memory owned by a
+// shared Arena, so a large graph costs the garbage collector almost nothing. Graphs are
+// either copied from heap graphs or mapped straight from snapshot files, in which case the
+// arrays are read from the page cache and never copied at all. Only the VertexIdMap, which
+// is consulted once per query, stays on the heap.
+//
+// All graphs created by a storage become unusable when it is closed: any access throws an
+// IllegalStateException instead of reading freed memory. Close it only after the last query.
+//
+// The foreign memory API stays inside this class: CSRGraph and CHGraph keep plain heap
+// arrays, and only graphs created here carry a GraphArrays or HierarchyArrays instead.
+public class OffHeapStorage implements AutoCloseable {
+    // Segments allocated here use the native byte order; snapshot files are big-endian and
+    // their columns are not necessarily aligned
+    private static final ValueLayout.OfInt FILE_INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong FILE_LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final boolean NATIVE_BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    private final Arena arena = Arena.ofShared();
+    private long allocatedBytes;
+    private long mappedBytes;
+
+    public CSRGraph copy(CSRGraph graph) {
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        return new CSRGraph(graph.getIdMap(), new GraphArrays(
+                doubles(n, graph::getLongitude), doubles(n, graph::getLatitude),
+                ints(n + 1, v -> v < n ? graph.getEdgeStart(v) : m), ints(m, graph::getTarget), ints(m, graph::getCost),
+                ints(n + 1, v -> v < n ? graph.getInEdgeStart(v) : m), ints(m, graph::getSource), ints(m, graph::getInCost)));
+    }
+
+    public CHGraph copy(CHGraph hierarchy) {
+        int n = hierarchy.getVertexCount();
+        int up = hierarchy.getUpEdgeCount();
+        int down = hierarchy.getDownEdgeCount();
+        return new CHGraph(hierarchy.getIdMap(), new HierarchyArrays(
+                doubles(n, hierarchy::getLongitude), doubles(n, hierarchy::getLatitude), ints(n, hierarchy::getRank),
+                ints(n + 1, v -> v < n ? hierarchy.getUpStart(v) : up), ints(up, hierarchy::getUpTarget),
+                ints(up, hierarchy::getUpCost), ints(up, hierarchy::getUpMiddle),
+                ints(n + 1, v -> v < n ? hierarchy.getDownStart(v) : down), ints(down, hierarchy::getDownSource),
+                ints(down, hierarchy::getDownCost), ints(down, hierarchy::getDownMiddle)));
+    }
+
+    // Map a GraphSnapshot file; the header and checksum are verified as in GraphSnapshot.open
+    public CSRGraph mapGraphSnapshot(Path path) throws IOException {
+        MemorySegment file = map(path);
+        if (file.byteSize() < GraphSnapshot.HEADER_BYTES) {
+            throw new IOException("Not a graph snapshot: " + path);
+        }
+        GraphSnapshot.Header header = GraphSnapshot.readHeader(
+                file.asSlice(0, GraphSnapshot.HEADER_BYTES).asByteBuffer(), file.byteSize(), path);
+        verifyChecksum(file, GraphSnapshot.HEADER_BYTES, header.getChecksum(), path);
+
+        int n = header.getVertexCount();
+        int m = header.getEdgeCount();
+        Columns columns = new Columns(file, GraphSnapshot.HEADER_BYTES);
+        VertexIdMap idMap = VertexIdMap.of(columns.longs(n));
+        return new CSRGraph(idMap, new GraphArrays(columns.doubles(n), columns.doubles(n),
+                columns.ints(n + 1), columns.ints(m), columns.ints(m),
+                columns.ints(n + 1), columns.ints(m), columns.ints(m)));
+    }
+
+    // Map a HierarchySnapshot file; the header and checksum are verified as in HierarchySnapshot.open
+    public CHGraph mapHierarchySnapshot(Path path) throws IOException {
+        MemorySegment file = map(path);
+        if (file.byteSize() < HierarchySnapshot.HEADER_BYTES) {
+            throw new IOException("Not a contraction hierarchy file: " + path);
+        }
+        HierarchySnapshot.checkHeader(file.asSlice(0, HierarchySnapshot.HEADER_BYTES).asByteBuffer(), file.byteSize(), path);
+        verifyChecksum(file, HierarchySnapshot.HEADER_BYTES, file.get(FILE_LONG, HierarchySnapshot.CHECKSUM_OFFSET), path);
+
+        int n = file.get(FILE_INT, 8);
+        int up = file.get(FILE_INT, 12);
+        int down = file.get(FILE_INT, 16);
+        Columns columns = new Columns(file, HierarchySnapshot.HEADER_BYTES);
+        VertexIdMap idMap = VertexIdMap.of(columns.longs(n));
+        return new CHGraph(idMap, new HierarchyArrays(columns.doubles(n), columns.doubles(n), columns.ints(n),
+                columns.ints(n + 1), columns.ints(up), columns.ints(up), columns.ints(up),
+                columns.ints(n + 1), columns.ints(down), columns.ints(down), columns.ints(down)));
+    }
+
+    // Bytes allocated for copied graphs
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    // Bytes of snapshot files mapped into memory
+    public long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    // Free all copied graphs and unmap all mapped files
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private synchronized Ints ints(int length, IntUnaryOperator values) {
+        MemorySegment segment = arena.allocate(Math.max(1, length * 4L), 8);
+        allocatedBytes += segment.byteSize();
+        for (int i = 0; i < length; i++) {
+            segment.setAtIndex(ValueLayout.JAVA_INT, i, values.applyAsInt(i));
+        }
+        return new Ints(segment.asSlice(0, length * 4L), NATIVE_BIG_ENDIAN);
+    }
+
+    private synchronized Doubles doubles(int length, IntToDoubleFunction values) {
+        MemorySegment segment = arena.allocate(Math.max(1, length * 8L), 8);
+        allocatedBytes += segment.byteSize();
+        for (int i = 0; i < length; i++) {
+            segment.setAtIndex(ValueLayout.JAVA_DOUBLE, i, values.applyAsDouble(i));
+        }
+        return new Doubles(segment.asSlice(0, length * 8L), NATIVE_BIG_ENDIAN);
+    }
+
+    private synchronized MemorySegment map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping belongs to the arena and outlives the channel
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            mappedBytes += file.byteSize();
+            return file;
+        }
+    }
+
+    // CRC32 of everything after the header. CRC32 cannot read a ByteBuffer view of memory in
+    // a shared arena, so the payload is passed through a small heap buffer.
+    private static void verifyChecksum(MemorySegment file, long payloadStart, long checksum, Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[1 << 16];
+        for (long offset = payloadStart; offset < file.byteSize(); offset += chunk.length) {
+            int length = (int) Math.min(chunk.length, file.byteSize() - offset);
+            MemorySegment.copy(file, ValueLayout.JAVA_BYTE, offset, chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        if (crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch in snapshot " + path);
+        }
+    }
+
+    // Consecutive columns of a snapshot file, handed out as slices of the mapping
+    private static class Columns {
+        private final MemorySegment file;
+        private long offset;
+
+        Columns(MemorySegment file, long offset) {
+            this.file = file;
+            this.offset = offset;
+        }
+
+        long[] longs(int count) {
+            long[] values = new long[count];
+            MemorySegment.copy(file, FILE_LONG, offset, values, 0, count);
+            offset += count * 8L;
+            return values;
+        }
+
+        Doubles doubles(int count) {
+            MemorySegment slice = file.asSlice(offset, count * 8L);
+            offset += count * 8L;
+            return new Doubles(slice, true);
+        }
+
+        Ints ints(int count) {
+            MemorySegment slice = file.asSlice(offset, count * 4L);
+            offset += count * 4L;
+            return new Ints(slice, true);
+        }
+    }
+
+    // Read-only ints in a segment, either native memory or a big-endian file column that is
+    // byte-swapped on a little-endian machine
+    static final class Ints {
+        private static final ValueLayout.OfInt LAYOUT = ValueLayout.JAVA_INT_UNALIGNED;
+
+        private final MemorySegment segment;
+        private final int length;
+        private final boolean swapBytes;
+
+        Ints(MemorySegment segment, boolean bigEndian) {
+            this.segment = segment;
+            this.length = (int) (segment.byteSize() / 4);
+            this.swapBytes = bigEndian != NATIVE_BIG_ENDIAN;
+        }
+
+        int get(int index) {
+            int value = segment.getAtIndex(LAYOUT, index);
+            return swapBytes ? Integer.reverseBytes(value) : value;
+        }
+
+        int length() {
+            return length;
+        }
+    }
+
+    // Read-only doubles in a segment; read as raw long bits so file columns swap like ints
+    static final class Doubles {
+        private static final ValueLayout.OfLong LAYOUT = ValueLayout.JAVA_LONG_UNALIGNED;
+
+        private final MemorySegment segment;
+        private final boolean swapBytes;
+
+        Doubles(MemorySegment segment, boolean bigEndian) {
+            this.segment = segment;
+            this.swapBytes = bigEndian != NATIVE_BIG_ENDIAN;
+        }
+
+        double get(int index) {
+            long bits = segment.getAtIndex(LAYOUT, index);
+            return Double.longBitsToDouble(swapBytes ? Long.reverseBytes(bits) : bits);
+        }
+    }
+
+    // The arrays of an off-heap CSRGraph, with the same meaning as its heap fields
+    static final class GraphArrays {
+        final Doubles longitude;
+        final Doubles latitude;
+        final Ints firstOut;
+        final Ints target;
+        final Ints cost;
+        final Ints firstIn;
+        final Ints source;
+        final Ints inCost;
+
+        GraphArrays(Doubles longitude, Doubles latitude, Ints firstOut, Ints target, Ints cost,
+                    Ints firstIn, Ints source, Ints inCost) {
+            this.longitude = longitude;
+            this.latitude = latitude;
+            this.firstOut = firstOut;
+            this.target = target;
+            this.cost = cost;
+            this.firstIn = firstIn;
+            this.source = source;
+            this.inCost = inCost;
+        }
+    }
+
+    // The arrays of an off-heap CHGraph, with the same meaning as its heap fields
+    static final class HierarchyArrays {
+        final Doubles longitude;
+        final Doubles latitude;
+        final Ints rank;
+        final Ints firstUp;
+        final Ints upTarget;
+        final Ints upCost;
+        final Ints upMiddle;
+        final Ints firstDown;
+        final Ints downSource;
+        final Ints downCost;
+        final Ints downMiddle;
+
+        HierarchyArrays(Doubles longitude, Doubles latitude, Ints rank,
+                        Ints firstUp, Ints upTarget, Ints upCost, Ints upMiddle,
+                        Ints firstDown, Ints downSource, Ints downCost, Ints downMiddle) {
+            this.longitude = longitude;
+            this.latitude = latitude;
+            this.rank = rank;
+            this.firstUp = firstUp;
+            this.upTarget = upTarget;
+            this.upCost = upCost;
+            this.upMiddle = upMiddle;
+            this.firstDown = firstDown;
+            this.downSource = downSource;
+            this.downCost = downCost;
+            this.downMiddle = downMiddle;
+        }
+    }
+}
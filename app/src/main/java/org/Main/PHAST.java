@@ -0,0 +1,123 @@
+package org.Main;
+
+import java.util.Arrays;
+
+// One-to-all distances on a contraction hierarchy (PHAST). An upward search from the
+// source is followed by one linear sweep over all vertices in descending rank order,
+// relaxing the downward edges into each vertex. Vertices and downward edges are stored
+// in sweep order, so the sweep reads the arrays front to back.
+public class PHAST {
+    private static final long UNREACHED = Long.MAX_VALUE;
+    // Sources swept together. The distances of a vertex for one block share a few cache
+    // lines; larger batches are swept block by block.
+    static final int MAX_BLOCK_SOURCES = 32;
+    // Largest interleaved distance array, which only matters for huge hierarchies
+    static final int MAX_INTERLEAVED = Integer.MAX_VALUE - 8;
+
+    private final CHGraph hierarchy;
+    private final int[] position;    // hierarchy index -> sweep position (n - 1 - rank)
+    private final int[] firstIn;     // downward edges into sweep position p are firstIn[p] .. firstIn[p + 1] - 1
+    private final int[] inSource;    // sweep position of the higher-ranked end
+    private final int[] inCost;
+
+    // Per-thread upward search state reused across queries and blocks
+    private final ThreadLocal<SearchSpace> spaces;
+    private final ThreadLocal<int[]> settledBuffers;
+
+    public PHAST(CHGraph hierarchy) {
+        this.hierarchy = hierarchy;
+        int n = hierarchy.getVertexCount();
+        spaces = ThreadLocal.withInitial(() -> new SearchSpace(n));
+        settledBuffers = ThreadLocal.withInitial(() -> new int[n]);
+        position = new int[n];
+        int[] vertexAt = new int[n];
+        for (int v = 0; v < n; v++) {
+            position[v] = n - 1 - hierarchy.getRank(v);
+            vertexAt[position[v]] = v;
+        }
+
+        firstIn = new int[n + 1];
+        inSource = new int[hierarchy.getDownEdgeCount()];
+        inCost = new int[hierarchy.getDownEdgeCount()];
+        int e = 0;
+        for (int p = 0; p < n; p++) {
+            int v = vertexAt[p];
+            firstIn[p] = e;
+            for (int i = hierarchy.getDownStart(v); i < hierarchy.getDownEnd(v); i++) {
+                inSource[e] = position[hierarchy.getDownSource(i)];
+                inCost[e++] = hierarchy.getDownCost(i);
+            }
+        }
+        firstIn[n] = e;
+    }
+
+    // Distances from source to every vertex, indexed like the hierarchy (CHGraph.getIndex),
+    // -1 for unreachable vertices
+    public long[] distancesFrom(long source) {
+        return distancesFrom(new long[] {source})[0];
+    }
+
+    // Distances from several sources computed in a single sweep. The distances of all sources
+    // are interleaved per vertex, so every downward edge is read once for the whole batch.
+    // Larger batches are swept in blocks of MAX_BLOCK_SOURCES sources that share one buffer.
+    public long[][] distancesFrom(long[] sources) {
+        int n = hierarchy.getVertexCount();
+        int block = blockSize(sources.length, n);
+        long[] dist = new long[n * block];
+        long[][] result = new long[sources.length][];
+        for (int first = 0; first < sources.length; first += block) {
+            sweep(sources, first, Math.min(block, sources.length - first), dist, result);
+        }
+        return result;
+    }
+
+    // Sources per sweep for a batch over rows of the given length, at least one
+    static int blockSize(int sourceCount, int rowLength) {
+        int block = Math.min(sourceCount, MAX_BLOCK_SOURCES);
+        return Math.max(1, Math.min(block, MAX_INTERLEAVED / Math.max(1, rowLength)));
+    }
+
+    // Sweep for sources first .. first + k - 1, storing their rows of the result
+    private void sweep(long[] sources, int first, int k, long[] dist, long[][] result) {
+        int n = hierarchy.getVertexCount();
+        Arrays.fill(dist, 0, n * k, UNREACHED);
+
+        // Upward phase
+        SearchSpace space = spaces.get();
+        int[] settled = settledBuffers.get();
+        for (int i = 0; i < k; i++) {
+            int s = hierarchy.getIndex(sources[first + i]);
+            if (s < 0) continue;
+            int count = ManyToManyCH.upwardSearch(hierarchy, space, s, true, settled);
+            for (int j = 0; j < count; j++) {
+                dist[position[settled[j]] * k + i] = space.getDistance(settled[j]);
+            }
+        }
+
+        // Downward sweep: every edge comes from a higher-ranked vertex, which is already final
+        for (int p = 0; p < n; p++) {
+            int base = p * k;
+            for (int e = firstIn[p]; e < firstIn[p + 1]; e++) {
+                int sourceBase = inSource[e] * k;
+                int cost = inCost[e];
+                for (int i = 0; i < k; i++) {
+                    long d = dist[sourceBase + i];
+                    if (d != UNREACHED && d + cost < dist[base + i]) {
+                        dist[base + i] = d + cost;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < k; i++) {
+            result[first + i] = new long[n];
+        }
+        for (int v = 0; v < n; v++) {
+            int base = position[v] * k;
+            for (int i = 0; i < k; i++) {
+                long d = dist[base + i];
+                result[first + i][v] = d == UNREACHED ? -1 : d;
+            }
+        }
+    }
+}
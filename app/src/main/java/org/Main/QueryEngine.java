@@ -0,0 +1,80 @@
+package org.Main;
+
+// A point-to-point search over a read-only graph. The graph is shared by all callers; each
+// thread passes its own workspace, created by newWorkspace().
+public interface QueryEngine {
+
+    QueryResult query(long source, long target, QueryWorkspace workspace);
+
+    QueryWorkspace newWorkspace();
+
+    static QueryEngine dijkstra(CSRGraph graph) {
+        return new QueryEngine() {
+            @Override
+            public QueryResult query(long source, long target, QueryWorkspace workspace) {
+                return Dijkstra.dijkstra(graph, source, target, workspace);
+            }
+
+            @Override
+            public QueryWorkspace newWorkspace() {
+                return new QueryWorkspace(graph);
+            }
+        };
+    }
+
+    static QueryEngine bidirectional(CSRGraph graph) {
+        return new QueryEngine() {
+            @Override
+            public QueryResult query(long source, long target, QueryWorkspace workspace) {
+                return BidirectionalDijkstra.bidirectionalDijkstra(graph, source, target, workspace);
+            }
+
+            @Override
+            public QueryWorkspace newWorkspace() {
+                return new QueryWorkspace(graph);
+            }
+        };
+    }
+
+    static QueryEngine aStar(CSRGraph graph, Heuristic heuristic) {
+        return new QueryEngine() {
+            @Override
+            public QueryResult query(long source, long target, QueryWorkspace workspace) {
+                return AStar.aStar(graph, source, target, heuristic, workspace);
+            }
+
+            @Override
+            public QueryWorkspace newWorkspace() {
+                return new QueryWorkspace(graph);
+            }
+        };
+    }
+
+    static QueryEngine bidirectionalAStar(CSRGraph graph, Heuristic heuristic) {
+        return new QueryEngine() {
+            @Override
+            public QueryResult query(long source, long target, QueryWorkspace workspace) {
+                return AStar.bidirectionalAStar(graph, source, target, heuristic, workspace);
+            }
+
+            @Override
+            public QueryWorkspace newWorkspace() {
+                return new QueryWorkspace(graph);
+            }
+        };
+    }
+
+    static QueryEngine contractionHierarchy(CHGraph hierarchy) {
+        return new QueryEngine() {
+            @Override
+            public QueryResult query(long source, long target, QueryWorkspace workspace) {
+                return BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, source, target, workspace);
+            }
+
+            @Override
+            public QueryWorkspace newWorkspace() {
+                return new QueryWorkspace(hierarchy);
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package org.Main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight recorder event covering one point-to-point query. There can be millions of these,
+// so the event is off unless a recording enables it, e.g. with
+// -XX:StartFlightRecording:org.Main.Query#enabled=true
+@Name("org.Main.Query")
+@Label("Query")
+@Category({"Routing", "Query"})
+@Enabled(false)
+@StackTrace(false)
+public class QueryEvent extends Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Source")
+    long source;
+
+    @Label("Target")
+    long target;
+
+    @Label("Distance")
+    long distance;
+
+    @Label("Settled Vertices")
+    long settledVertices;
+
+    @Label("Relaxed Edges")
+    long relaxedEdges;
+}
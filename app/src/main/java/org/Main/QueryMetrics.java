@@ -0,0 +1,108 @@
+package org.Main;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Aggregated measurements of one query engine: latency and settled-vertex histograms plus
+// totals of the search counters. Safe to update from many threads at once.
+public class QueryMetrics {
+    private final String name;
+    private final LatencyHistogram latencyNanos = new LatencyHistogram();
+    private final LatencyHistogram settledVertices = new LatencyHistogram();
+    private final LongAdder heapPushes = new LongAdder();
+    private final LongAdder heapPops = new LongAdder();
+    private final LongAdder stalledVertices = new LongAdder();
+    private final LongAdder meetingUpdates = new LongAdder();
+    private final LongAdder relaxedEdges = new LongAdder();
+    private final LongAdder unreachable = new LongAdder();
+
+    public QueryMetrics(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, long settled, long pushes, long pops, long stalled, long meetings, QueryResult result) {
+        latencyNanos.record(nanos);
+        settledVertices.record(settled);
+        heapPushes.add(pushes);
+        heapPops.add(pops);
+        stalledVertices.add(stalled);
+        meetingUpdates.add(meetings);
+        relaxedEdges.add(result.getRelaxedEdges());
+        if (result.getShortestPath() < 0) {
+            unreachable.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public LatencyHistogram getSettledVertices() {
+        return settledVertices;
+    }
+
+    public long getQueryCount() {
+        return latencyNanos.getCount();
+    }
+
+    public long getHeapPushes() {
+        return heapPushes.sum();
+    }
+
+    public long getHeapPops() {
+        return heapPops.sum();
+    }
+
+    public long getStalledVertices() {
+        return stalledVertices.sum();
+    }
+
+    public long getMeetingUpdates() {
+        return meetingUpdates.sum();
+    }
+
+    public long getRelaxedEdges() {
+        return relaxedEdges.sum();
+    }
+
+    public long getUnreachableCount() {
+        return unreachable.sum();
+    }
+
+    public String toJson() {
+        return "{\"engine\":\"" + name.replace("\"", "\\\"") + "\""
+                + ",\"queries\":" + getQueryCount()
+                + ",\"latencyNanos\":{\"mean\":" + Math.round(latencyNanos.getMean())
+                + ",\"p50\":" + latencyNanos.getPercentile(0.5)
+                + ",\"p99\":" + latencyNanos.getPercentile(0.99)
+                + ",\"p999\":" + latencyNanos.getPercentile(0.999)
+                + ",\"max\":" + latencyNanos.getMax() + "}"
+                + ",\"settledVertices\":{\"mean\":" + Math.round(settledVertices.getMean())
+                + ",\"p50\":" + settledVertices.getPercentile(0.5)
+                + ",\"p99\":" + settledVertices.getPercentile(0.99)
+                + ",\"max\":" + settledVertices.getMax() + "}"
+                + ",\"heapPushes\":" + getHeapPushes()
+                + ",\"heapPops\":" + getHeapPops()
+                + ",\"stalledVertices\":" + getStalledVertices()
+                + ",\"meetingUpdates\":" + getMeetingUpdates()
+                + ",\"relaxedEdges\":" + getRelaxedEdges()
+                + ",\"unreachable\":" + getUnreachableCount() + "}";
+    }
+
+    public static String csvHeader() {
+        return "engine,queries,latency_mean_ns,latency_p50_ns,latency_p99_ns,latency_p999_ns,latency_max_ns,"
+                + "settled_mean,settled_p99,heap_pushes,heap_pops,stalled,meeting_updates,relaxed_edges,unreachable";
+    }
+
+    public String toCsvRow() {
+        return name + "," + getQueryCount() + "," + Math.round(latencyNanos.getMean()) + ","
+                + latencyNanos.getPercentile(0.5) + "," + latencyNanos.getPercentile(0.99) + ","
+                + latencyNanos.getPercentile(0.999) + "," + latencyNanos.getMax() + ","
+                + Math.round(settledVertices.getMean()) + "," + settledVertices.getPercentile(0.99) + ","
+                + getHeapPushes() + "," + getHeapPops() + "," + getStalledVertices() + ","
+                + getMeetingUpdates() + "," + getRelaxedEdges() + "," + getUnreachableCount();
+    }
+}
@@ -0,0 +1,105 @@
+package org.Main;
+
+import java.util.Arrays;
+
+// Reusable state for point-to-point queries on graphs with a fixed number of vertices.
+// Allocate one per thread and pass it to the search methods; it is reset at the start of
+// every query in time proportional to the vertices the previous query touched.
+public class QueryWorkspace {
+    private final SearchSpace forward;
+    private final SearchSpace backward;
+
+    // Vertex where the searches of the last query met, and scratch buffers for unpacking paths
+    private int meetingVertex = -1;
+    private int[] path = new int[64];
+    private int[] stack = new int[64];
+
+    // Totals since construction, read by InstrumentedQueryEngine before and after each query
+    private long stalledVertices;
+    private long meetingUpdates;
+
+    public QueryWorkspace(int vertexCount) {
+        forward = new SearchSpace(vertexCount);
+        backward = new SearchSpace(vertexCount);
+    }
+
+    public QueryWorkspace(CSRGraph graph) {
+        this(graph.getVertexCount());
+    }
+
+    public QueryWorkspace(CHGraph hierarchy) {
+        this(hierarchy.getVertexCount());
+    }
+
+    public SearchSpace forward() {
+        return forward;
+    }
+
+    public SearchSpace backward() {
+        return backward;
+    }
+
+    public int getVertexCount() {
+        return forward.getVertexCount();
+    }
+
+    public void reset() {
+        forward.reset();
+        backward.reset();
+        meetingVertex = -1;
+    }
+
+    public long getHeapPushes() {
+        return forward.getHeap().getPushCount() + backward.getHeap().getPushCount();
+    }
+
+    public long getHeapPops() {
+        return forward.getHeap().getPollCount() + backward.getHeap().getPollCount();
+    }
+
+    // Popped vertices that stall-on-demand did not expand
+    public long getStalledVertices() {
+        return stalledVertices;
+    }
+
+    // Popped vertices that were expanded
+    public long getSettledVertices() {
+        return getHeapPops() - stalledVertices;
+    }
+
+    // Times a bidirectional search improved its best meeting point
+    public long getMeetingUpdates() {
+        return meetingUpdates;
+    }
+
+    void countStalled() {
+        stalledVertices++;
+    }
+
+    void countMeetingUpdate() {
+        meetingUpdates++;
+    }
+
+    int getMeetingVertex() {
+        return meetingVertex;
+    }
+
+    void setMeetingVertex(int meetingVertex) {
+        this.meetingVertex = meetingVertex;
+    }
+
+    // Buffers of at least the given length, keeping their contents when they grow
+    int[] pathBuffer(int length) {
+        if (path.length < length) {
+            path = Arrays.copyOf(path, Math.max(length, 2 * path.length));
+        }
+        return path;
+    }
+
+    int[] stackBuffer(int length) {
+        if (stack.length < length) {
+            stack = Arrays.copyOf(stack, Math.max(length, 2 * stack.length));
+        }
+        return stack;
+    }
+}
@@ -0,0 +1,167 @@
+package org.Main;
+
+import java.util.Arrays;
+
+// Restricted PHAST for distances from any source to a fixed set of targets. The selection
+// phase keeps only the vertices from which a target can be reached by downward edges, i.e.
+// everything the backward upward searches from the targets would touch. Queries then run the
+// PHAST sweep over this restricted set instead of the whole hierarchy, so a target set that
+// is reused across many sources pays for the selection once.
+public class RPHAST {
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    private final CHGraph hierarchy;
+    private final int[] position;       // hierarchy index -> sweep position, -1 if not selected
+    private final int[] firstIn;        // downward edges into sweep position p, in sweep order
+    private final int[] inSource;
+    private final int[] inCost;
+    private final int[] targetPosition; // sweep position of every target, -1 for unknown ids
+
+    // Per-thread search state reused across queries, so a query allocates only its result
+    private final ThreadLocal<SearchSpace> spaces;
+    private final ThreadLocal<int[]> settledBuffers;
+    private final ThreadLocal<long[]> distanceBuffers = ThreadLocal.withInitial(() -> new long[0]);
+
+    public RPHAST(CHGraph hierarchy, long[] targets) {
+        this.hierarchy = hierarchy;
+        int n = hierarchy.getVertexCount();
+        spaces = ThreadLocal.withInitial(() -> new SearchSpace(n));
+        settledBuffers = ThreadLocal.withInitial(() -> new int[n]);
+        position = new int[n];
+        Arrays.fill(position, -1);
+
+        // Select all vertices above the targets, marking them with position 0 for now
+        int[] stack = new int[n];
+        int top = 0;
+        int selected = 0;
+        for (long target : targets) {
+            int t = hierarchy.getIndex(target);
+            if (t >= 0 && position[t] < 0) {
+                position[t] = 0;
+                stack[top++] = t;
+                selected++;
+            }
+        }
+        while (top > 0) {
+            int v = stack[--top];
+            for (int e = hierarchy.getDownStart(v); e < hierarchy.getDownEnd(v); e++) {
+                int u = hierarchy.getDownSource(e);
+                if (position[u] < 0) {
+                    position[u] = 0;
+                    stack[top++] = u;
+                    selected++;
+                }
+            }
+        }
+
+        // Order the selection by descending rank
+        long[] order = new long[selected];
+        int i = 0;
+        for (int v = 0; v < n; v++) {
+            if (position[v] == 0) {
+                order[i++] = ((long) (n - 1 - hierarchy.getRank(v)) << 32) | v;
+            }
+        }
+        Arrays.sort(order);
+        int[] vertexAt = new int[selected];
+        for (int p = 0; p < selected; p++) {
+            vertexAt[p] = (int) order[p];
+            position[vertexAt[p]] = p;
+        }
+
+        // Every downward edge into a selected vertex starts at a selected vertex
+        firstIn = new int[selected + 1];
+        for (int p = 0; p < selected; p++) {
+            int v = vertexAt[p];
+            firstIn[p + 1] = firstIn[p] + hierarchy.getDownEnd(v) - hierarchy.getDownStart(v);
+        }
+        inSource = new int[firstIn[selected]];
+        inCost = new int[firstIn[selected]];
+        for (int p = 0; p < selected; p++) {
+            int v = vertexAt[p];
+            int slot = firstIn[p];
+            for (int e = hierarchy.getDownStart(v); e < hierarchy.getDownEnd(v); e++) {
+                inSource[slot] = position[hierarchy.getDownSource(e)];
+                inCost[slot++] = hierarchy.getDownCost(e);
+            }
+        }
+
+        targetPosition = new int[targets.length];
+        for (int j = 0; j < targets.length; j++) {
+            int t = hierarchy.getIndex(targets[j]);
+            targetPosition[j] = t < 0 ? -1 : position[t];
+        }
+    }
+
+    // Number of vertices the sweep visits
+    public int getSelectedVertexCount() {
+        return firstIn.length - 1;
+    }
+
+    // Distances from source to every target, in the order the targets were given, -1 if unreachable
+    public long[] distancesFrom(long source) {
+        return distancesFrom(new long[] {source})[0];
+    }
+
+    // Distances from several sources in a single restricted sweep with interleaved distances,
+    // in blocks of at most PHAST.MAX_BLOCK_SOURCES sources, so the per-thread distance buffer
+    // never grows beyond that many distances per selected vertex
+    public long[][] distancesFrom(long[] sources) {
+        int block = PHAST.blockSize(sources.length, getSelectedVertexCount());
+        long[][] result = new long[sources.length][];
+        for (int first = 0; first < sources.length; first += block) {
+            sweep(sources, first, Math.min(block, sources.length - first), result);
+        }
+        return result;
+    }
+
+    // Sweep for sources first .. first + k - 1, storing their rows of the result
+    private void sweep(long[] sources, int first, int k, long[][] result) {
+        int selected = getSelectedVertexCount();
+        long[] dist = distanceBuffers.get();
+        if (dist.length < selected * k) {
+            dist = new long[selected * k];
+            distanceBuffers.set(dist);
+        }
+        Arrays.fill(dist, 0, selected * k, UNREACHED);
+
+        // Upward phase over the whole hierarchy; only selected vertices are kept
+        SearchSpace space = spaces.get();
+        int[] settled = settledBuffers.get();
+        for (int i = 0; i < k; i++) {
+            int s = hierarchy.getIndex(sources[first + i]);
+            if (s < 0) continue;
+            int count = ManyToManyCH.upwardSearch(hierarchy, space, s, true, settled);
+            for (int j = 0; j < count; j++) {
+                int p = position[settled[j]];
+                if (p >= 0) {
+                    dist[p * k + i] = space.getDistance(settled[j]);
+                }
+            }
+        }
+
+        // Downward sweep over the selected vertices
+        for (int p = 0; p < selected; p++) {
+            int base = p * k;
+            for (int e = firstIn[p]; e < firstIn[p + 1]; e++) {
+                int sourceBase = inSource[e] * k;
+                int cost = inCost[e];
+                for (int i = 0; i < k; i++) {
+                    long d = dist[sourceBase + i];
+                    if (d != UNREACHED && d + cost < dist[base + i]) {
+                        dist[base + i] = d + cost;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < k; i++) {
+            long[] row = new long[targetPosition.length];
+            for (int j = 0; j < targetPosition.length; j++) {
+                long d = targetPosition[j] < 0 ? UNREACHED : dist[targetPosition[j] * k + i];
+                row[j] = d == UNREACHED ? -1 : d;
+            }
+            result[first + i] = row;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.Main;
+
+// Result of a path query: the distance plus the route as a sequence of original vertices
+// with their coordinates. An unreachable target gives distance -1 and an empty route.
+public class Route extends QueryResult {
+    private final long[] vertices;
+    private final double[] longitude;
+    private final double[] latitude;
+
+    public Route(long shortestPath, long relaxedEdges, long[] vertices, double[] longitude, double[] latitude) {
+        super(shortestPath, relaxedEdges);
+        this.vertices = vertices;
+        this.longitude = longitude;
+        this.latitude = latitude;
+    }
+
+    // Number of vertices on the route, including source and target
+    public int size() {
+        return vertices.length;
+    }
+
+    public long getVertex(int i) {
+        return vertices[i];
+    }
+
+    public long[] getVertices() {
+        return vertices.clone();
+    }
+
+    public double getLongitude(int i) {
+        return longitude[i];
+    }
+
+    public double getLatitude(int i) {
+        return latitude[i];
+    }
+}
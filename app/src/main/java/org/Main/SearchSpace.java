@@ -0,0 +1,72 @@
+package org.Main;
+
+import java.util.Arrays;
+
+// Per-direction state of a search: tentative distances, parents, settled flags and the heap.
+// Entries are only valid if their stamp equals the current version, so reset() is O(1)
+// instead of refilling the arrays for every query; only the heap is cleared in O(size).
+public class SearchSpace {
+    private final long[] distance;
+    private final int[] parent;
+    private final int[] reachedStamp;
+    private final int[] settledStamp;
+    private final IndexedHeap heap;
+    private int version;
+
+    public SearchSpace(int vertexCount) {
+        distance = new long[vertexCount];
+        parent = new int[vertexCount];
+        reachedStamp = new int[vertexCount];
+        settledStamp = new int[vertexCount];
+        heap = new IndexedHeap(vertexCount);
+        version = 1;
+    }
+
+    // Invalidate all entries of the previous search
+    public void reset() {
+        heap.clear();
+        version++;
+        if (version == Integer.MAX_VALUE) {
+            // Stamps would wrap around, so clear them once
+            Arrays.fill(reachedStamp, 0);
+            Arrays.fill(settledStamp, 0);
+            version = 1;
+        }
+    }
+
+    public int getVertexCount() {
+        return distance.length;
+    }
+
+    public boolean isReached(int v) {
+        return reachedStamp[v] == version;
+    }
+
+    // Tentative distance of v, or Long.MAX_VALUE if v was not reached in this search
+    public long getDistance(int v) {
+        return reachedStamp[v] == version ? distance[v] : Long.MAX_VALUE;
+    }
+
+    // Parent of v on the current shortest path tree, or -1 for the root or unreached vertices
+    public int getParent(int v) {
+        return reachedStamp[v] == version ? parent[v] : -1;
+    }
+
+    public void setDistance(int v, long dist, int parentVertex) {
+        distance[v] = dist;
+        parent[v] = parentVertex;
+        reachedStamp[v] = version;
+    }
+
+    public boolean isSettled(int v) {
+        return settledStamp[v] == version;
+    }
+
+    public void settle(int v) {
+        settledStamp[v] = version;
+    }
+
+    public IndexedHeap getHeap() {
+        return heap;
+    }
+}
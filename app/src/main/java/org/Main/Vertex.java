@@ -1,6 +1,7 @@
 package org.Main;
 
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class Vertex {
@@ -14,7 +15,7 @@ public class Vertex {
         this.id = id;
         this.longitude = longitude;
         this.latitude = latitude;
-        this.edges = new HashSet<>();
+        this.edges = new LinkedHashSet<>();  // Insertion order keeps contraction reproducible
     }
 
     // Getters
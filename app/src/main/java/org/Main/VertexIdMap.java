@@ -0,0 +1,104 @@
+package org.Main;
+
+import java.util.Arrays;
+
+// Dictionary from sparse external (OSM-style) vertex ids to dense indices 0..n-1.
+// Open addressing over primitive arrays, so lookups never box a Long.
+public class VertexIdMap {
+    private static final int EMPTY = -1;
+
+    private long[] ids;      // dense index -> external id
+    private long[] keys;     // hash table slots
+    private int[] values;    // dense index stored in each slot, EMPTY if free
+    private int mask;
+    private int size;
+
+    public VertexIdMap(int expectedSize) {
+        ids = new long[Math.max(expectedSize, 1)];
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+    }
+
+    // Build a map whose dense index of ids[i] is i
+    public static VertexIdMap of(long[] ids) {
+        VertexIdMap map = new VertexIdMap(ids.length);
+        for (long id : ids) {
+            map.add(id);
+        }
+        return map;
+    }
+
+    // Dense index of id, assigning the next free index if the id is new
+    public int add(long id) {
+        int slot = slot(id);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == id) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        int index = size++;
+        ids[index] = id;
+        keys[slot] = id;
+        values[slot] = index;
+
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return index;
+    }
+
+    // Dense index of id, or -1 if the id is unknown
+    public int getIndex(long id) {
+        int slot = slot(id);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == id) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // External id of a dense index
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // External ids in dense index order
+    public long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        int capacity = keys.length * 2;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = slot(ids[index]);
+            while (values[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = ids[index];
+            values[slot] = index;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.Main.AStar;
+import org.Main.CSRGraph;
+import org.Main.Dijkstra;
+import org.Main.GeoHeuristic;
+import org.Main.Graph;
+import org.Main.QueryWorkspace;
+import org.junit.Test;
+
+public class AStarTest {
+
+    @Test
+    public void testMatchesDijkstraOnGrid() {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(30, 30, 14));
+        GeoHeuristic heuristic = new GeoHeuristic(graph);
+        assertTrue(heuristic.getCostPerMeter() > 0);
+        QueryWorkspace workspace = new QueryWorkspace(graph);
+
+        Random random = new Random(10);
+        long dijkstraRelaxed = 0;
+        long aStarRelaxed = 0;
+        for (int i = 0; i < 200; i++) {
+            long s = TestGraphs.id(random.nextInt(30), random.nextInt(30), 30);
+            long t = TestGraphs.id(random.nextInt(30), random.nextInt(30), 30);
+            long expected = Dijkstra.dijkstra(graph, s, t).getShortestPath();
+            assertEquals(expected, AStar.aStar(graph, s, t, heuristic, workspace).getShortestPath());
+            assertEquals(expected, AStar.bidirectionalAStar(graph, s, t, heuristic, workspace).getShortestPath());
+            dijkstraRelaxed += Dijkstra.dijkstra(graph, s, t).getRelaxedEdges();
+            aStarRelaxed += AStar.aStar(graph, s, t, heuristic, workspace).getRelaxedEdges();
+        }
+        assertTrue(aStarRelaxed < dijkstraRelaxed);
+    }
+
+    @Test
+    public void testDirectedGraphWithoutUsefulCoordinates() {
+        // Random coordinates and costs: the bound is weak but must stay admissible
+        Random random = new Random(12);
+        Graph g = new Graph();
+        for (int i = 0; i < 60; i++) {
+            g.addVertex(i, random.nextDouble(), random.nextDouble());
+        }
+        for (int i = 0; i < 240; i++) {
+            g.addEdge(random.nextInt(60), random.nextInt(60), 1 + random.nextInt(50));
+        }
+        CSRGraph graph = CSRGraph.fromGraph(g);
+        GeoHeuristic heuristic = new GeoHeuristic(graph);
+
+        for (long s = 0; s < 60; s++) {
+            for (long t = 0; t < 60; t++) {
+                long expected = Dijkstra.dijkstra(graph, s, t).getShortestPath();
+                assertEquals(expected, AStar.aStar(graph, s, t, heuristic).getShortestPath());
+                assertEquals(expected, AStar.bidirectionalAStar(graph, s, t, heuristic).getShortestPath());
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.Main.BatchQueryExecutor;
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.QueryEngine;
+import org.junit.Test;
+
+public class BatchQueryExecutorTest {
+
+    @Test
+    public void testResultsInInputOrder() {
+        Graph graph = TestGraphs.grid(20, 20, 23);
+        CSRGraph csrGraph = CSRGraph.fromGraph(graph);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+
+        Random random = new Random(6);
+        long[] sources = new long[500];
+        long[] targets = new long[500];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+            targets[i] = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+        }
+
+        QueryEngine[] engines = {
+            QueryEngine.dijkstra(csrGraph), QueryEngine.bidirectional(csrGraph), QueryEngine.contractionHierarchy(hierarchy)
+        };
+        try (BatchQueryExecutor platform = BatchQueryExecutor.platformThreads(4);
+             BatchQueryExecutor virtual = BatchQueryExecutor.virtualThreads()) {
+            for (QueryEngine engine : engines) {
+                BatchQueryExecutor.BatchResult first = platform.execute(engine, sources, targets);
+                BatchQueryExecutor.BatchResult second = virtual.execute(engine, sources, targets);
+                assertEquals(500, first.getQueryCount());
+                assertTrue(first.getWorkspaceCount() <= 4);
+                for (int i = 0; i < sources.length; i++) {
+                    long expected = Dijkstra.dijkstra(csrGraph, sources[i], targets[i]).getShortestPath();
+                    assertEquals(expected, first.getResult(i).getShortestPath());
+                    assertEquals(expected, second.getResult(i).getShortestPath());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsShareBoundedWorkspaces() {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(10, 10, 3));
+        long[] sources = new long[2000];
+        long[] targets = new long[2000];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = TestGraphs.id(i % 10, i / 10 % 10, 10);
+            targets[i] = TestGraphs.id(i / 10 % 10, i % 10, 10);
+        }
+        // 32 chunks, but only two of them may hold a workspace at the same time
+        try (BatchQueryExecutor virtual = BatchQueryExecutor.virtualThreads(2)) {
+            BatchQueryExecutor.BatchResult result = virtual.execute(QueryEngine.dijkstra(graph), sources, targets);
+            assertEquals(2000, result.getQueryCount());
+            assertTrue(result.getWorkspaceCount() <= 2);
+        }
+    }
+
+    @Test
+    public void testRepeatedBatchesReuseWorkspaces() {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(10, 10, 3));
+        long[] sources = new long[1000];
+        long[] targets = new long[1000];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = TestGraphs.id(i % 10, i / 10 % 10, 10);
+            targets[i] = TestGraphs.id(i / 10 % 10, i % 10, 10);
+        }
+        QueryEngine engine = QueryEngine.dijkstra(graph);
+        try (BatchQueryExecutor virtual = BatchQueryExecutor.virtualThreads(2)) {
+            BatchQueryExecutor.BatchResult first = virtual.execute(engine, sources, targets);
+            BatchQueryExecutor.BatchResult second = virtual.execute(engine, sources, targets);
+            assertTrue(first.getWorkspacesCreated() >= 1);
+            assertEquals(0, second.getWorkspacesCreated());
+            assertEquals(first.getWorkspaceCount(), second.getWorkspaceCount());
+            for (int i = 0; i < sources.length; i++) {
+                assertEquals(first.getResult(i).getShortestPath(), second.getResult(i).getShortestPath());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedPairs() {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(3, 3, 1));
+        try (BatchQueryExecutor executor = BatchQueryExecutor.platformThreads(2)) {
+            executor.execute(QueryEngine.dijkstra(graph), new long[2], new long[3]);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.Main.BidirectionalDijkstra;
+import org.Main.BidirectionalDijkstraCH;
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.QueryResult;
+import org.Main.QueryWorkspace;
+import org.Main.Route;
+import org.junit.Test;
+
+public class BidirectionalDijkstraCHTest {
+
+    @Test
+    public void testUpwardQueryMatchesDijkstra() {
+        Graph graph = TestGraphs.randomUndirected(80, 200, 21);
+        CSRGraph original = CSRGraph.fromGraph(graph);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+        QueryWorkspace workspace = new QueryWorkspace(hierarchy);
+
+        for (long s = 0; s < 80; s++) {
+            for (long t = 0; t < 80; t++) {
+                long expected = Dijkstra.dijkstra(original, s, t).getShortestPath();
+                assertEquals(expected, BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, s, t, workspace).getShortestPath());
+            }
+        }
+    }
+
+    @Test
+    public void testHierarchyPrunesSearchSpace() {
+        Graph graph = TestGraphs.grid(30, 30, 4);
+        CSRGraph original = CSRGraph.fromGraph(graph);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+
+        Random random = new Random(8);
+        long chRelaxed = 0;
+        long bidirectionalRelaxed = 0;
+        for (int i = 0; i < 100; i++) {
+            long s = TestGraphs.id(random.nextInt(30), random.nextInt(30), 30);
+            long t = TestGraphs.id(random.nextInt(30), random.nextInt(30), 30);
+            QueryResult expected = BidirectionalDijkstra.bidirectionalDijkstra(original, s, t);
+            QueryResult result = BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, s, t);
+            assertEquals(expected.getShortestPath(), result.getShortestPath());
+            chRelaxed += result.getRelaxedEdges();
+            bidirectionalRelaxed += expected.getRelaxedEdges();
+        }
+        assertTrue(chRelaxed < bidirectionalRelaxed);
+    }
+
+    @Test
+    public void testUnreachableTarget() {
+        Graph graph = new Graph();
+        graph.addVertex(1, 0, 0);
+        graph.addVertex(2, 0, 0);
+        graph.addVertex(3, 0, 0);
+        TestGraphs.addUndirected(graph, 1, 2, 4);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+
+        QueryResult result = BidirectionalDijkstraCH.bidirectionalDijkstra(contractionHierarchy.getCHGraph(), 1, 3);
+        assertEquals(-1, result.getShortestPath());
+    }
+
+    @Test
+    public void testRouteUnpacksToOriginalEdges() {
+        Graph graph = TestGraphs.grid(25, 25, 12);
+        CSRGraph original = CSRGraph.fromGraph(graph);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+        QueryWorkspace workspace = new QueryWorkspace(hierarchy);
+
+        Random random = new Random(13);
+        for (int i = 0; i < 100; i++) {
+            long s = TestGraphs.id(random.nextInt(25), random.nextInt(25), 25);
+            long t = TestGraphs.id(random.nextInt(25), random.nextInt(25), 25);
+            Route route = BidirectionalDijkstraCH.shortestPath(hierarchy, s, t, workspace);
+            assertEquals(Dijkstra.dijkstra(original, s, t).getShortestPath(), route.getShortestPath());
+            assertEquals(s, route.getVertex(0));
+            assertEquals(t, route.getVertex(route.size() - 1));
+
+            // Every step is an original edge and the steps add up to the distance
+            long length = 0;
+            for (int j = 0; j + 1 < route.size(); j++) {
+                length += edgeCost(original, route.getVertex(j), route.getVertex(j + 1));
+            }
+            assertEquals(route.getShortestPath(), length);
+            assertEquals(graph.getVertexById(t).getLatitude(), route.getLatitude(route.size() - 1), 0.0);
+        }
+    }
+
+    @Test
+    public void testRouteToSelfAndUnreachable() {
+        Graph graph = new Graph();
+        graph.addVertex(1, 0, 0);
+        graph.addVertex(2, 0, 0);
+        graph.addVertex(3, 0, 0);
+        TestGraphs.addUndirected(graph, 1, 2, 4);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+
+        assertEquals(1, BidirectionalDijkstraCH.shortestPath(hierarchy, 2, 2).size());
+        assertEquals(0, BidirectionalDijkstraCH.shortestPath(hierarchy, 1, 3).size());
+    }
+
+    private static long edgeCost(CSRGraph graph, long from, long to) {
+        int v = graph.getIndex(from);
+        long best = Long.MAX_VALUE;
+        for (int e = graph.getEdgeStart(v); e < graph.getEdgeEnd(v); e++) {
+            if (graph.getId(graph.getTarget(e)) == to) {
+                best = Math.min(best, graph.getCost(e));
+            }
+        }
+        assertTrue("No edge " + from + " -> " + to, best != Long.MAX_VALUE);
+        return best;
+    }
+}
@@ -42,6 +42,23 @@ public class BuildGraphTest {
         assertEquals(50, edges.get(0).getCost());
     }
 
+    @Test
+    public void testUpdateEdgeCostChangesBothDirections() {
+        Graph graph = new Graph();
+        graph.addVertex(1, 10.0, 20.0);
+        graph.addVertex(2, 30.0, 40.0);
+        graph.addEdge(1, 2, 50);
+        graph.addEdge(2, 1, 60);
+
+        // Both adjacency list edges plus the reversed copies in the vertex edge lists
+        assertEquals(4, graph.updateEdgeCost(1, 2, 70));
+        assertEquals(70, graph.getEdgeCost(1, 2));
+        assertEquals(70, graph.getEdgeCost(2, 1));
+        for (Edge edge : graph.getVertexById(2).getEdges()) {
+            assertEquals(70, edge.getCost());
+        }
+    }
+
     @Test
     public void testHasEdge() {
         Graph graph = new Graph();
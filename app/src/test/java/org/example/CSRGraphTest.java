@@ -0,0 +1,95 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+
+import org.Main.BidirectionalDijkstra;
+import org.Main.CSRGraph;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.junit.Test;
+
+public class CSRGraphTest {
+
+    private static final String INPUT = "5 6\n" +
+                                        "1 10.0 20.0\n" +
+                                        "2 15.0 25.0\n" +
+                                        "3 20.0 30.0\n" +
+                                        "4 25.0 35.0\n" +
+                                        "5 30.0 40.0\n" +
+                                        "1 2 10\n" +
+                                        "1 3 15\n" +
+                                        "2 4 20\n" +
+                                        "3 4 25\n" +
+                                        "4 5 30\n" +
+                                        "5 1 35\n";
+
+    @Test
+    public void testFromGraph() {
+        Graph graph = new Graph();
+        graph.addVertex(7, 1.0, 2.0);
+        graph.addVertex(3, 3.0, 4.0);
+        graph.addVertex(5, 5.0, 6.0);
+        graph.addEdge(3, 5, 4);
+        graph.addEdge(3, 7, 2);
+        graph.addEdge(7, 5, 1);
+
+        CSRGraph csr = CSRGraph.fromGraph(graph);
+        assertEquals(3, csr.getVertexCount());
+        assertEquals(3, csr.getEdgeCount());
+
+        int v3 = csr.getIndex(3);
+        assertEquals(3, csr.getId(v3));
+        assertEquals(3.0, csr.getLongitude(v3), 0.0);
+        assertEquals(2, csr.getEdgeEnd(v3) - csr.getEdgeStart(v3));
+        assertEquals(-1, csr.getIndex(42));
+
+        // Vertex 5 has two incoming edges and none outgoing
+        int v5 = csr.getIndex(5);
+        assertEquals(0, csr.getEdgeEnd(v5) - csr.getEdgeStart(v5));
+        assertEquals(2, csr.getInEdgeEnd(v5) - csr.getInEdgeStart(v5));
+    }
+
+    @Test
+    public void testReadGraphFromInput() throws Exception {
+        CSRGraph csr = CSRGraph.readGraphFromInput(new ByteArrayInputStream(INPUT.getBytes()));
+        assertEquals(5, csr.getVertexCount());
+        assertEquals(6, csr.getEdgeCount());
+
+        int v1 = csr.getIndex(1);
+        assertEquals(2, csr.getEdgeEnd(v1) - csr.getEdgeStart(v1));
+        assertEquals(30, Dijkstra.dijkstra(csr, 1, 4).getShortestPath()); // 1 -> 2 -> 4
+        assertEquals(60, Dijkstra.dijkstra(csr, 1, 5).getShortestPath());
+        assertEquals(85, BidirectionalDijkstra.bidirectionalDijkstra(csr, 2, 1).getShortestPath()); // 2 -> 4 -> 5 -> 1
+        assertEquals(-1, Dijkstra.dijkstra(csr, 1, 99).getShortestPath());
+    }
+
+    @Test
+    public void testSearchesMatchGraph() {
+        Graph graph = randomGraph(200, 800, 42);
+        CSRGraph csr = CSRGraph.fromGraph(graph);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100; i++) {
+            long s = random.nextInt(200);
+            long t = random.nextInt(200);
+            long expected = Dijkstra.dijkstra(graph, s, t).getShortestPath();
+            assertEquals(expected, Dijkstra.dijkstra(csr, s, t).getShortestPath());
+            assertEquals(expected, BidirectionalDijkstra.bidirectionalDijkstra(csr, s, t).getShortestPath());
+        }
+    }
+
+    private static Graph randomGraph(int n, int m, long seed) {
+        Random random = new Random(seed);
+        Graph graph = new Graph();
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(i, random.nextDouble(), random.nextDouble());
+        }
+        for (int i = 0; i < m; i++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(100));
+        }
+        return graph;
+    }
+}
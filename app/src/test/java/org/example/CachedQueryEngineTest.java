@@ -0,0 +1,80 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.Main.CSRGraph;
+import org.Main.CachedQueryEngine;
+import org.Main.Dijkstra;
+import org.Main.QueryEngine;
+import org.Main.QueryWorkspace;
+import org.junit.Test;
+
+public class CachedQueryEngineTest {
+
+    private final CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(15, 15, 20));
+
+    @Test
+    public void testHitsReturnSameDistance() {
+        CachedQueryEngine cache = new CachedQueryEngine(QueryEngine.bidirectional(graph), 1000);
+        QueryWorkspace workspace = cache.newWorkspace();
+        Random random = new Random(21);
+        long[][] pairs = new long[50][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new long[] {TestGraphs.id(random.nextInt(15), random.nextInt(15), 15),
+                                   TestGraphs.id(random.nextInt(15), random.nextInt(15), 15)};
+        }
+
+        for (int round = 0; round < 3; round++) {
+            for (long[] pair : pairs) {
+                long expected = Dijkstra.dijkstra(graph, pair[0], pair[1]).getShortestPath();
+                assertEquals(expected, cache.query(pair[0], pair[1], workspace).getShortestPath());
+            }
+        }
+        assertTrue(cache.getMisses() <= 50);
+        assertEquals(150, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    public void testEvictionKeepsSizeBounded() {
+        CachedQueryEngine cache = new CachedQueryEngine(QueryEngine.dijkstra(graph), 32, 4, () -> 0L);
+        QueryWorkspace workspace = cache.newWorkspace();
+        for (int r = 0; r < 15; r++) {
+            for (int c = 0; c < 15; c++) {
+                long s = TestGraphs.id(0, 0, 15);
+                long t = TestGraphs.id(r, c, 15);
+                assertEquals(Dijkstra.dijkstra(graph, s, t).getShortestPath(), cache.query(s, t, workspace).getShortestPath());
+                assertTrue(cache.size() <= 32);
+            }
+        }
+        // The most recently added results are still cached
+        long hitsBefore = cache.getHits();
+        for (int c = 11; c < 15; c++) {
+            long t = TestGraphs.id(14, c, 15);
+            assertEquals(Dijkstra.dijkstra(graph, TestGraphs.id(0, 0, 15), t).getShortestPath(),
+                         cache.query(TestGraphs.id(0, 0, 15), t, workspace).getShortestPath());
+        }
+        assertEquals(hitsBefore + 4, cache.getHits());
+    }
+
+    @Test
+    public void testVersionChangeInvalidates() {
+        AtomicLong version = new AtomicLong();
+        CachedQueryEngine cache = new CachedQueryEngine(QueryEngine.dijkstra(graph), 100, 2, version::get);
+        QueryWorkspace workspace = cache.newWorkspace();
+        long s = TestGraphs.id(0, 0, 15);
+        long t = TestGraphs.id(14, 14, 15);
+
+        cache.query(s, t, workspace);
+        cache.query(s, t, workspace);
+        assertEquals(1, cache.getHits());
+
+        version.incrementAndGet();
+        cache.query(s, t, workspace);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+}
@@ -7,9 +7,18 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
 
+import org.Main.BidirectionalDijkstraCH;
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
 import org.Main.ContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.Edge;
 import org.Main.Graph;
+import org.Main.Route;
 import org.Main.Vertex;
 import org.junit.Before;
 import org.junit.Test;
@@ -64,6 +73,96 @@ public class ContractionHierarchyTest {
         assertNotNull(v);
     }
 
+    @Test
+    public void testWitnessPathAvoidsShortcut() {
+        // Contracting 1 would need the shortcut 2-3 (cost 30), but 2-5-3 costs only 12
+        graph.addVertex(5, 50, 60);
+        graph.addEdge(2, 5, 6);
+        graph.addEdge(5, 3, 6);
+        contractionHierarchy = new ContractionHierarchy(graph);
+
+        int shortcutsAdded = contractionHierarchy.contractVertex(graph.getVertexById(1));
+        assertEquals(0, shortcutsAdded);
+        assertEquals(1, contractionHierarchy.getTotalShortcutsAvoided());
+    }
+
+    @Test
+    public void testHopLimitedWitnessSearch() {
+        // With a single hop the two-edge witness 2-5-3 is out of reach
+        graph.addVertex(5, 50, 60);
+        graph.addEdge(2, 5, 6);
+        graph.addEdge(5, 3, 6);
+        contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.setWitnessHopLimit(1);
+
+        assertEquals(1, contractionHierarchy.contractVertex(graph.getVertexById(1)));
+    }
+
+    @Test
+    public void testZeroCostShortcut() {
+        // 1-2-3 costs nothing, so contracting 2 needs a zero-cost shortcut 1-3
+        Graph path = new Graph();
+        path.addVertex(1, 0, 0);
+        path.addVertex(2, 1, 0);
+        path.addVertex(3, 2, 0);
+        path.addEdge(1, 2, 0);
+        path.addEdge(2, 3, 0);
+        ContractionHierarchy ch = new ContractionHierarchy(path);
+
+        assertEquals(1, ch.contractVertex(path.getVertexById(2)));
+        assertEquals(0, ch.getAugmentedGraph().getEdgeCost(1, 3));
+    }
+
+    @Test
+    public void testParallelPreprocess() {
+        Graph grid = TestGraphs.grid(20, 20, 3);
+        CSRGraph original = CSRGraph.fromGraph(grid);
+        ContractionHierarchy parallel = new ContractionHierarchy(grid);
+        parallel.preprocessParallel(4);
+        assertEquals(400, parallel.getVertexOrder().size());
+
+        CHGraph hierarchy = parallel.getCHGraph();
+        Random random = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            long s = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+            long t = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+            assertEquals(Dijkstra.dijkstra(original, s, t).getShortestPath(),
+                         BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, s, t).getShortestPath());
+        }
+    }
+
+    @Test
+    public void testParallelPreprocessIsDeterministic() {
+        ContractionHierarchy first = new ContractionHierarchy(TestGraphs.grid(15, 15, 6));
+        first.preprocessParallel(4);
+        ContractionHierarchy second = new ContractionHierarchy(TestGraphs.grid(15, 15, 6));
+        second.preprocessParallel(2);
+
+        CHGraph a = first.getCHGraph();
+        CHGraph b = second.getCHGraph();
+        assertEquals(a.getUpEdgeCount(), b.getUpEdgeCount());
+        for (int v = 0; v < a.getVertexCount(); v++) {
+            assertEquals(a.getRank(v), b.getRank(v));
+        }
+        for (int e = 0; e < a.getUpEdgeCount(); e++) {
+            assertEquals(a.getUpTarget(e), b.getUpTarget(e));
+            assertEquals(a.getUpCost(e), b.getUpCost(e));
+        }
+    }
+
+    @Test
+    public void testPreprocessLeavesGraphUnchanged() {
+        Graph grid = TestGraphs.grid(10, 10, 2);
+        int edgesBefore = grid.getEdges().size();
+        int vertexEdgesBefore = grid.getVertexById(TestGraphs.id(5, 5, 10)).getEdges().size();
+
+        ContractionHierarchy ch = new ContractionHierarchy(grid);
+        ch.preprocess();
+        assertTrue(ch.getTotalShortcutsAdded() > 0);
+        assertEquals(edgesBefore, grid.getEdges().size());
+        assertEquals(vertexEdgesBefore, grid.getVertexById(TestGraphs.id(5, 5, 10)).getEdges().size());
+    }
+
     @Test
     public void testGetAugmentedGraph() {
         // Test the augmented graph after preprocessing
@@ -96,4 +195,164 @@ public class ContractionHierarchyTest {
         int priority = contractionHierarchy.getNodePriority(v);
         assertTrue(priority >= 0);
     }
+
+    @Test
+    public void testPriorityFavoursVerticesWithoutShortcuts() {
+        // A leaf needs no shortcut, while vertex 1 needs the shortcut 2 - 3
+        graph.addVertex(new Vertex(5, 50, 60));
+        graph.addEdge(4, 5, 5);
+        ContractionHierarchy ch = new ContractionHierarchy(graph);
+        assertTrue(ch.getNodePriority(graph.getVertexById(5)) < ch.getNodePriority(graph.getVertexById(1)));
+    }
+
+    @Test
+    public void testSequentialPreprocessMatchesDijkstra() {
+        Graph grid = TestGraphs.grid(12, 12, 11);
+        CSRGraph original = CSRGraph.fromGraph(grid);
+        ContractionHierarchy ch = new ContractionHierarchy(grid);
+        ch.preprocess();
+        assertEquals(144, ch.getVertexOrder().size());
+
+        CHGraph hierarchy = ch.getCHGraph();
+        Random random = new Random(5);
+        for (int i = 0; i < 100; i++) {
+            long s = TestGraphs.id(random.nextInt(12), random.nextInt(12), 12);
+            long t = TestGraphs.id(random.nextInt(12), random.nextInt(12), 12);
+            assertEquals(Dijkstra.dijkstra(original, s, t).getShortestPath(),
+                         BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, s, t).getShortestPath());
+        }
+    }
+
+    @Test
+    public void testEdgeCostRepairIsExact() {
+        Graph grid = TestGraphs.grid(12, 12, 14);
+        ContractionHierarchy ch = new ContractionHierarchy(grid);
+        ch.preprocess();
+
+        // Both cheaper and more expensive roads, with the default witness limits
+        Random random = new Random(15);
+        int updated = 0;
+        for (int i = 0; i < 10; i++) {
+            int row = random.nextInt(12);
+            int col = random.nextInt(11);
+            long a = TestGraphs.id(row, col, 12);
+            long b = TestGraphs.id(row, col + 1, 12);
+            int cost = random.nextBoolean() ? 1 : 5000;
+            updated += ch.updateEdgeCost(a, b, cost).getShortcutsUpdated();
+            grid.updateEdgeCost(a, b, cost);
+        }
+        assertTrue(updated > 0);
+
+        CSRGraph changed = CSRGraph.fromGraph(grid);
+        CHGraph hierarchy = ch.getCHGraph();
+        for (int i = 0; i < 300; i++) {
+            long s = TestGraphs.id(random.nextInt(12), random.nextInt(12), 12);
+            long t = TestGraphs.id(random.nextInt(12), random.nextInt(12), 12);
+            assertEquals(Dijkstra.dijkstra(changed, s, t).getShortestPath(),
+                         BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, s, t).getShortestPath());
+        }
+    }
+
+    @Test
+    public void testRepairedShortcutsMatchTheirPaths() {
+        Graph grid = TestGraphs.grid(12, 12, 16);
+        CSRGraph original = CSRGraph.fromGraph(grid);
+        ContractionHierarchy ch = new ContractionHierarchy(grid);
+        ch.preprocess();
+
+        // Close a road in the middle: every route is a real shortest path
+        long a = TestGraphs.id(6, 5, 12);
+        long b = TestGraphs.id(6, 6, 12);
+        int oldCost = grid.getEdgeCost(a, b);
+        ContractionHierarchy.RepairResult result = ch.updateEdgeCost(a, b, 1_000_000);
+        assertTrue(result.getShortcutsUpdated() <= result.getShortcutsChecked());
+
+        // The hierarchy works on its own copy of the edges
+        assertEquals(oldCost, grid.getEdgeCost(a, b));
+        assertEquals(oldCost, grid.getEdgeCost(b, a));
+        grid.updateEdgeCost(a, b, 1_000_000);
+        CSRGraph closed = CSRGraph.fromGraph(grid);
+        CHGraph hierarchy = ch.getCHGraph();
+        Random random = new Random(17);
+        for (int i = 0; i < 100; i++) {
+            long s = TestGraphs.id(random.nextInt(12), random.nextInt(12), 12);
+            long t = TestGraphs.id(random.nextInt(12), random.nextInt(12), 12);
+            Route route = BidirectionalDijkstraCH.shortestPath(hierarchy, s, t);
+            long length = 0;
+            for (int j = 0; j + 1 < route.size(); j++) {
+                length += cheapestEdge(closed, route.getVertex(j), route.getVertex(j + 1));
+            }
+            assertEquals(route.getShortestPath(), length);
+            assertEquals(Dijkstra.dijkstra(closed, s, t).getShortestPath(), length);
+        }
+
+        // Reopening it restores the original distances
+        ch.updateEdgeCost(a, b, oldCost);
+        grid.updateEdgeCost(a, b, oldCost);
+        hierarchy = ch.getCHGraph();
+        for (int i = 0; i < 100; i++) {
+            long s = TestGraphs.id(random.nextInt(12), random.nextInt(12), 12);
+            long t = TestGraphs.id(random.nextInt(12), random.nextInt(12), 12);
+            assertEquals(Dijkstra.dijkstra(original, s, t).getShortestPath(),
+                         BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, s, t).getShortestPath());
+        }
+    }
+
+    @Test
+    public void testRepairLeavesUntouchedShortcutsAlone() {
+        Graph grid = TestGraphs.grid(20, 20, 18);
+        ContractionHierarchy ch = new ContractionHierarchy(grid);
+        ch.preprocess();
+        Map<Edge, Integer> before = new IdentityHashMap<>();
+        for (Edge shortcut : ch.getShortcuts()) {
+            before.put(shortcut, shortcut.getCost());
+        }
+
+        // Close a road near a corner
+        long a = TestGraphs.id(1, 1, 20);
+        long b = TestGraphs.id(1, 2, 20);
+        ContractionHierarchy.RepairResult result = ch.updateEdgeCost(a, b, 1_000_000);
+        grid.updateEdgeCost(a, b, 1_000_000);
+
+        // Shortcuts that were not replaced are the same objects with the same cost
+        int kept = 0;
+        for (Edge shortcut : ch.getShortcuts()) {
+            Integer cost = before.get(shortcut);
+            if (cost != null) {
+                assertEquals((int) cost, shortcut.getCost());
+                kept++;
+            }
+        }
+        assertTrue(before.size() - kept <= result.getShortcutsUpdated() + result.getShortcutsRemoved());
+        assertTrue(result.getVerticesRecontracted() < 400 / 2);
+        assertTrue(result.getShortcutsChecked() < before.size() / 2);
+
+        CSRGraph closed = CSRGraph.fromGraph(grid);
+        CHGraph hierarchy = ch.getCHGraph();
+        Random random = new Random(19);
+        for (int i = 0; i < 200; i++) {
+            long s = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+            long t = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+            assertEquals(Dijkstra.dijkstra(closed, s, t).getShortestPath(),
+                         BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, s, t).getShortestPath());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRepairRejectsMissingEdge() {
+        contractionHierarchy.preprocess();
+        contractionHierarchy.updateEdgeCost(1, 4, 5);
+    }
+
+    private static long cheapestEdge(CSRGraph graph, long from, long to) {
+        int v = graph.getIndex(from);
+        long best = Long.MAX_VALUE;
+        for (int e = graph.getEdgeStart(v); e < graph.getEdgeEnd(v); e++) {
+            if (graph.getId(graph.getTarget(e)) == to) {
+                best = Math.min(best, graph.getCost(e));
+            }
+        }
+        assertTrue("No edge " + from + " -> " + to, best != Long.MAX_VALUE);
+        return best;
+    }
 }
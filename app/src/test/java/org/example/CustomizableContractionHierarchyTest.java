@@ -0,0 +1,107 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.Main.BidirectionalDijkstraCH;
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.CachedQueryEngine;
+import org.Main.CustomizableContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.QueryEngine;
+import org.Main.QueryWorkspace;
+import org.Main.Route;
+import org.junit.Test;
+
+public class CustomizableContractionHierarchyTest {
+
+    @Test
+    public void testNestedDissectionOrderIsPermutation() {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(16, 16, 1));
+        int[] rank = CustomizableContractionHierarchy.nestedDissectionOrder(graph);
+        boolean[] seen = new boolean[rank.length];
+        for (int r : rank) {
+            assertTrue(!seen[r]);
+            seen[r] = true;
+        }
+    }
+
+    @Test
+    public void testCustomizedQueriesMatchDijkstra() {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(20, 20, 9));
+        CustomizableContractionHierarchy cch = new CustomizableContractionHierarchy(graph);
+        CHGraph hierarchy = cch.customize(4);
+        QueryWorkspace workspace = new QueryWorkspace(hierarchy);
+
+        Random random = new Random(10);
+        for (int i = 0; i < 300; i++) {
+            long s = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+            long t = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+            long expected = Dijkstra.dijkstra(graph, s, t).getShortestPath();
+            assertEquals(expected, BidirectionalDijkstraCH.bidirectionalDijkstra(hierarchy, s, t, workspace).getShortestPath());
+
+            // Shortcut middles from customization unpack to the original vertices
+            Route route = BidirectionalDijkstraCH.shortestPath(hierarchy, s, t, workspace);
+            long length = 0;
+            for (int j = 0; j + 1 < route.size(); j++) {
+                length += edgeCost(graph, route.getVertex(j), route.getVertex(j + 1));
+            }
+            assertEquals(t, route.getVertex(route.size() - 1));
+            assertEquals(expected, length);
+        }
+    }
+
+    @Test
+    public void testNewDirectedMetricKeepsTopology() {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.randomUndirected(120, 300, 4));
+        CustomizableContractionHierarchy cch = new CustomizableContractionHierarchy(graph);
+        QueryEngine engine = new CachedQueryEngine(cch.queryEngine(), 1024, 4, cch::getMetricVersion);
+        cch.customize(2);
+        QueryWorkspace workspace = engine.newWorkspace();
+        engine.query(0, 1, workspace);
+        int arcs = cch.getArcCount();
+
+        // Different costs in each direction, and some roads closed
+        Random random = new Random(6);
+        int[] cost = new int[graph.getEdgeCount()];
+        Graph changed = new Graph();
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            changed.addVertex(graph.getId(v), graph.getLongitude(v), graph.getLatitude(v));
+        }
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            for (int e = graph.getEdgeStart(v); e < graph.getEdgeEnd(v); e++) {
+                cost[e] = random.nextInt(10) == 0 ? Integer.MAX_VALUE : 1 + random.nextInt(200);
+                if (cost[e] != Integer.MAX_VALUE) {
+                    changed.addEdge(graph.getId(v), graph.getId(graph.getTarget(e)), cost[e]);
+                }
+            }
+        }
+        CSRGraph expected = CSRGraph.fromGraph(changed);
+        cch.customize(cost, 3);
+        assertEquals(arcs, cch.getArcCount());
+        assertEquals(2, cch.getMetricVersion());
+
+        for (long s = 0; s < 120; s++) {
+            for (long t = 0; t < 120; t += 7) {
+                assertEquals(Dijkstra.dijkstra(expected, s, t).getShortestPath(),
+                             engine.query(s, t, workspace).getShortestPath());
+            }
+        }
+    }
+
+    private static long edgeCost(CSRGraph graph, long from, long to) {
+        int v = graph.getIndex(from);
+        long best = Long.MAX_VALUE;
+        for (int e = graph.getEdgeStart(v); e < graph.getEdgeEnd(v); e++) {
+            if (graph.getId(graph.getTarget(e)) == to) {
+                best = Math.min(best, graph.getCost(e));
+            }
+        }
+        assertTrue("No edge " + from + " -> " + to, best != Long.MAX_VALUE);
+        return best;
+    }
+}
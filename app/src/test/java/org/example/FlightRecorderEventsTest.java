@@ -0,0 +1,96 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.GraphSnapshot;
+import org.Main.InstrumentedQueryEngine;
+import org.Main.QueryEngine;
+import org.Main.QueryWorkspace;
+import org.junit.Test;
+
+public class FlightRecorderEventsTest {
+
+    @Test
+    public void testEventsAreRecorded() throws IOException {
+        Path snapshot = Files.createTempFile("graph", ".snapshot");
+        Path dump = Files.createTempFile("routing", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.Main.GraphLoad");
+            recording.enable("org.Main.ContractionBatch");
+            recording.enable("org.Main.Query");
+            recording.start();
+
+            GraphSnapshot.write(CSRGraph.fromGraph(TestGraphs.grid(10, 10, 7)), snapshot);
+            CSRGraph loaded = GraphSnapshot.open(snapshot);
+            ContractionHierarchy contractionHierarchy = new ContractionHierarchy(TestGraphs.grid(10, 10, 7));
+            contractionHierarchy.preprocessParallel(2);
+            CHGraph hierarchy = contractionHierarchy.getCHGraph();
+            InstrumentedQueryEngine engine = new InstrumentedQueryEngine(QueryEngine.contractionHierarchy(hierarchy), "ch");
+            QueryWorkspace workspace = engine.newWorkspace();
+            for (int i = 0; i < 10; i++) {
+                engine.query(TestGraphs.id(0, i, 10), TestGraphs.id(9, 9 - i, 10), workspace);
+            }
+
+            recording.stop();
+            recording.dump(dump);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+            RecordedEvent load = only(events, "org.Main.GraphLoad");
+            assertEquals("snapshot", load.getString("format"));
+            assertEquals(loaded.getVertexCount(), load.getInt("vertexCount"));
+
+            int contracted = 0;
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().equals("org.Main.ContractionBatch")) {
+                    contracted += event.getInt("verticesContracted");
+                }
+            }
+            assertEquals(100, contracted);
+
+            long queries = events.stream().filter(e -> e.getEventType().getName().equals("org.Main.Query")).count();
+            assertEquals(10, queries);
+        } finally {
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    public void testQueryEventsAreOffByDefault() throws IOException {
+        Path dump = Files.createTempFile("routing", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.start();
+            ContractionHierarchy contractionHierarchy = new ContractionHierarchy(TestGraphs.grid(5, 5, 1));
+            contractionHierarchy.preprocess();
+            InstrumentedQueryEngine engine = new InstrumentedQueryEngine(
+                    QueryEngine.contractionHierarchy(contractionHierarchy.getCHGraph()), "ch");
+            engine.query(TestGraphs.id(0, 0, 5), TestGraphs.id(4, 4, 5), engine.newWorkspace());
+
+            recording.stop();
+            recording.dump(dump);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().equals("org.Main.Query")));
+            assertEquals(25, only(events, "org.Main.ContractionBatch").getInt("verticesContracted"));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size());
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,102 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.Main.CSRGraph;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.GraphSnapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GraphSnapshotTest {
+
+    private File file;
+    private CSRGraph graph;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("snapshot", ".bin");
+        Random random = new Random(9);
+        Graph g = new Graph();
+        for (int i = 0; i < 100; i++) {
+            g.addVertex(10_000L + i * 3, random.nextDouble(), random.nextDouble());
+        }
+        for (int i = 0; i < 400; i++) {
+            g.addEdge(10_000L + random.nextInt(100) * 3, 10_000L + random.nextInt(100) * 3, 1 + random.nextInt(20));
+        }
+        graph = CSRGraph.fromGraph(g);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        GraphSnapshot.write(graph, file.toPath());
+
+        GraphSnapshot.Header header = GraphSnapshot.validate(file.toPath());
+        assertEquals(100, header.getVertexCount());
+        assertEquals(400, header.getEdgeCount());
+
+        CSRGraph loaded = GraphSnapshot.open(file.toPath());
+        assertEquals(graph.getVertexCount(), loaded.getVertexCount());
+        assertEquals(graph.getEdgeCount(), loaded.getEdgeCount());
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            assertEquals(graph.getId(v), loaded.getId(v));
+            assertEquals(graph.getLatitude(v), loaded.getLatitude(v), 0.0);
+            assertEquals(graph.getInEdgeStart(v), loaded.getInEdgeStart(v));
+        }
+        for (int i = 0; i < 100; i++) {
+            long s = graph.getId(0);
+            long t = graph.getId(i);
+            assertEquals(Dijkstra.dijkstra(graph, s, t).getShortestPath(), Dijkstra.dijkstra(loaded, s, t).getShortestPath());
+        }
+    }
+
+    @Test
+    public void testSourceChecksumTracksTheTextFile() throws IOException {
+        File source = File.createTempFile("graph", ".graph");
+        try {
+            Files.write(source.toPath(), "1 0\n7 1.0 2.0\n".getBytes());
+            long checksum = GraphSnapshot.sourceChecksum(source.toPath());
+            GraphSnapshot.write(graph, checksum, file.toPath());
+            assertEquals(checksum, GraphSnapshot.readHeader(file.toPath()).getSourceChecksum());
+
+            // Any edit to the text file gives a different checksum
+            Files.write(source.toPath(), "1 0\n7 1.0 2.5\n".getBytes());
+            assertTrue(GraphSnapshot.sourceChecksum(source.toPath()) != checksum);
+        } finally {
+            source.delete();
+        }
+    }
+
+    @Test
+    public void testCorruptedPayloadIsRejected() throws IOException {
+        GraphSnapshot.write(graph, file.toPath());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        }
+
+        try {
+            GraphSnapshot.open(file.toPath());
+            fail("Corrupted snapshot should not load");
+        } catch (IOException expected) {
+            // Checksum mismatch
+        }
+    }
+}
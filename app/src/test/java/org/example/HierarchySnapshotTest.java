@@ -0,0 +1,133 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.Main.BidirectionalDijkstraCH;
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.GraphSnapshot;
+import org.Main.HierarchySnapshot;
+import org.junit.Test;
+
+public class HierarchySnapshotTest {
+
+    @Test
+    public void testSavedHierarchyAnswersQueries() throws IOException {
+        Random random = new Random(5);
+        int n = 60;
+        Graph graph = new Graph();
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(100 + i, random.nextDouble(), random.nextDouble());
+        }
+        for (int i = 0; i < 150; i++) {
+            long a = 100 + random.nextInt(n);
+            long b = 100 + random.nextInt(n);
+            int cost = 1 + random.nextInt(30);
+            graph.addEdge(a, b, cost);
+            graph.addEdge(b, a, cost);
+        }
+
+        long[][] expected = new long[n][n];
+        for (int s = 0; s < n; s++) {
+            for (int t = 0; t < n; t++) {
+                expected[s][t] = Dijkstra.dijkstra(graph, 100 + s, 100 + t).getShortestPath();
+            }
+        }
+
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+
+        File file = File.createTempFile("hierarchy", ".ch");
+        try {
+            HierarchySnapshot.write(hierarchy, file.toPath());
+            CHGraph loaded = HierarchySnapshot.open(file.toPath());
+
+            assertEquals(hierarchy.getVertexCount(), loaded.getVertexCount());
+            assertEquals(hierarchy.getUpEdgeCount(), loaded.getUpEdgeCount());
+            assertEquals(hierarchy.getDownEdgeCount(), loaded.getDownEdgeCount());
+            for (int v = 0; v < n; v++) {
+                assertEquals(hierarchy.getRank(v), loaded.getRank(v));
+                assertEquals(hierarchy.getUpStart(v), loaded.getUpStart(v));
+            }
+            for (int e = 0; e < hierarchy.getUpEdgeCount(); e++) {
+                assertEquals(hierarchy.getUpMiddle(e), loaded.getUpMiddle(e));
+            }
+
+            CSRGraph augmentedGraph = loaded.toCSRGraph();
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    assertEquals(expected[s][t],
+                            BidirectionalDijkstraCH.bidirectionalDijkstra(augmentedGraph, 100 + s, 100 + t).getShortestPath());
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRejectsGraphSnapshot() throws IOException {
+        Graph graph = new Graph();
+        graph.addVertex(1, 0, 0);
+        File file = File.createTempFile("graph", ".bin");
+        try {
+            GraphSnapshot.write(CSRGraph.fromGraph(graph), file.toPath());
+            HierarchySnapshot.open(file.toPath());
+            fail("A graph snapshot is not a hierarchy file");
+        } catch (IOException expected) {
+            // Wrong magic number
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testFingerprintDetectsAnotherGraph() throws IOException {
+        Graph graph = new Graph();
+        for (int i = 0; i < 4; i++) {
+            graph.addVertex(i, i, 0);
+        }
+        graph.addEdge(0, 1, 5);
+        graph.addEdge(1, 2, 5);
+        graph.addEdge(2, 3, 5);
+        long fingerprint = HierarchySnapshot.fingerprint(CSRGraph.fromGraph(graph));
+
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        File file = File.createTempFile("hierarchy", ".ch");
+        try {
+            HierarchySnapshot.write(contractionHierarchy.getCHGraph(), fingerprint, file.toPath());
+            assertEquals(fingerprint, HierarchySnapshot.readGraphFingerprint(file.toPath()));
+            assertEquals(4, HierarchySnapshot.open(file.toPath(), fingerprint).getVertexCount());
+
+            // The same topology with one changed cost is a different graph
+            Graph changed = new Graph();
+            for (int i = 0; i < 4; i++) {
+                changed.addVertex(i, i, 0);
+            }
+            changed.addEdge(0, 1, 5);
+            changed.addEdge(1, 2, 6);
+            changed.addEdge(2, 3, 5);
+            long otherFingerprint = HierarchySnapshot.fingerprint(CSRGraph.fromGraph(changed));
+            assertTrue(fingerprint != otherFingerprint);
+            try {
+                HierarchySnapshot.open(file.toPath(), otherFingerprint);
+                fail("Opened a hierarchy built from another graph");
+            } catch (IOException expected) {
+                // Fingerprint mismatch
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.Main.IndexedHeap;
+import org.junit.Test;
+
+public class IndexedHeapTest {
+
+    @Test
+    public void testDecreaseKeyAndRemove() {
+        IndexedHeap heap = new IndexedHeap(10);
+        heap.push(3, 30);
+        heap.push(5, 50);
+        heap.push(7, 70);
+
+        assertTrue(heap.decreaseKey(7, 10));
+        assertFalse(heap.decreaseKey(5, 60)); // Not an improvement
+        assertEquals(7, heap.peek());
+        assertEquals(10, heap.peekKey());
+
+        heap.remove(3);
+        assertFalse(heap.contains(3));
+        assertEquals(2, heap.size());
+        assertEquals(7, heap.poll());
+        assertEquals(5, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testClearAllowsReuse() {
+        IndexedHeap heap = new IndexedHeap(4);
+        heap.push(0, 1);
+        heap.push(1, 2);
+        heap.clear();
+
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(0));
+        heap.push(0, 5);
+        assertEquals(0, heap.poll());
+    }
+
+    @Test
+    public void testMatchesPriorityQueueOrder() {
+        Random random = new Random(1);
+        int n = 1000;
+        IndexedHeap heap = new IndexedHeap(n);
+        long[] keys = new long[n];
+
+        // Random inserts followed by random key changes
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt(100_000);
+            heap.push(i, keys[i]);
+        }
+        for (int i = 0; i < 3 * n; i++) {
+            int element = random.nextInt(n);
+            keys[element] = random.nextInt(100_000);
+            heap.push(element, keys[element]);
+        }
+
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        for (long key : keys) {
+            expected.add(key);
+        }
+        while (!heap.isEmpty()) {
+            long key = heap.peekKey();
+            int element = heap.poll();
+            assertEquals(keys[element], key);
+            assertEquals((long) expected.poll(), key);
+        }
+    }
+}
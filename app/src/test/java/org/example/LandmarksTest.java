@@ -0,0 +1,101 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.Main.AStar;
+import org.Main.BidirectionalDijkstra;
+import org.Main.CSRGraph;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.Landmarks;
+import org.Main.QueryWorkspace;
+import org.junit.Test;
+
+public class LandmarksTest {
+
+    @Test
+    public void testBoundsOnDirectedGraph() {
+        Random random = new Random(15);
+        Graph g = new Graph();
+        for (int i = 0; i < 70; i++) {
+            g.addVertex(i, random.nextDouble(), random.nextDouble());
+        }
+        for (int i = 0; i < 200; i++) {
+            g.addEdge(random.nextInt(70), random.nextInt(70), 1 + random.nextInt(40));
+        }
+        CSRGraph graph = CSRGraph.fromGraph(g);
+
+        for (Landmarks.Strategy strategy : Landmarks.Strategy.values()) {
+            Landmarks landmarks = Landmarks.select(graph, 4, strategy, 2);
+            assertEquals(4, landmarks.getLandmarkCount());
+            for (long s = 0; s < 70; s++) {
+                for (long t = 0; t < 70; t++) {
+                    long expected = Dijkstra.dijkstra(graph, s, t).getShortestPath();
+                    if (expected >= 0) {
+                        assertTrue(landmarks.estimate(graph.getIndex(s), graph.getIndex(t)) <= expected);
+                    }
+                    assertEquals(expected, AStar.bidirectionalAStar(graph, s, t, landmarks).getShortestPath());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPrunesGridSearch() {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(30, 30, 16));
+        Landmarks landmarks = Landmarks.select(graph, 8, Landmarks.Strategy.AVOID, 4);
+        QueryWorkspace workspace = new QueryWorkspace(graph);
+
+        Random random = new Random(17);
+        long altRelaxed = 0;
+        long bidirectionalRelaxed = 0;
+        for (int i = 0; i < 100; i++) {
+            long s = TestGraphs.id(random.nextInt(30), random.nextInt(30), 30);
+            long t = TestGraphs.id(random.nextInt(30), random.nextInt(30), 30);
+            long expected = Dijkstra.dijkstra(graph, s, t).getShortestPath();
+            assertEquals(expected, AStar.bidirectionalAStar(graph, s, t, landmarks, workspace).getShortestPath());
+            altRelaxed += AStar.bidirectionalAStar(graph, s, t, landmarks, workspace).getRelaxedEdges();
+            bidirectionalRelaxed += BidirectionalDijkstra.bidirectionalDijkstra(graph, s, t, workspace).getRelaxedEdges();
+        }
+        assertTrue(altRelaxed < bidirectionalRelaxed);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(12, 12, 18));
+        Landmarks landmarks = Landmarks.select(graph, 4, Landmarks.Strategy.FARTHEST, 2);
+        File file = File.createTempFile("landmarks", ".bin");
+        try {
+            landmarks.write(graph, file.toPath());
+            Landmarks loaded = Landmarks.read(graph, file.toPath());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(landmarks.getLandmark(i), loaded.getLandmark(i));
+            }
+            for (int v = 0; v < graph.getVertexCount(); v++) {
+                assertEquals(landmarks.estimate(v, 0), loaded.estimate(v, 0));
+                assertEquals(landmarks.estimate(0, v), loaded.estimate(0, v));
+            }
+
+            try {
+                Landmarks.read(CSRGraph.fromGraph(TestGraphs.grid(5, 5, 1)), file.toPath());
+                fail("Landmarks of another graph should not load");
+            } catch (IOException expected) {
+                // Vertex count mismatch
+            }
+            try {
+                Landmarks.read(CSRGraph.fromGraph(TestGraphs.grid(12, 12, 19)), file.toPath());
+                fail("Landmarks of a graph with other edge costs should not load");
+            } catch (IOException expected) {
+                // Same size, different fingerprint
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
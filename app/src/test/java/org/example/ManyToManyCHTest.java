@@ -0,0 +1,59 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.ManyToManyCH;
+import org.junit.Test;
+
+public class ManyToManyCHTest {
+
+    @Test
+    public void testMatrixMatchesDijkstra() {
+        Graph graph = TestGraphs.grid(20, 20, 17);
+        CSRGraph original = CSRGraph.fromGraph(graph);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+
+        Random random = new Random(3);
+        long[] sources = new long[15];
+        long[] targets = new long[20];
+        for (int i = 0; i < sources.length; i++) sources[i] = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+        for (int j = 0; j < targets.length; j++) targets[j] = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+
+        long[][] sequential = ManyToManyCH.distanceMatrix(hierarchy, sources, targets);
+        long[][] parallel = ManyToManyCH.distanceMatrix(hierarchy, sources, targets, 4);
+        for (int i = 0; i < sources.length; i++) {
+            for (int j = 0; j < targets.length; j++) {
+                long expected = Dijkstra.dijkstra(original, sources[i], targets[j]).getShortestPath();
+                assertEquals(expected, sequential[i][j]);
+                assertEquals(expected, parallel[i][j]);
+            }
+        }
+    }
+
+    @Test
+    public void testUnreachableAndUnknownVertices() {
+        Graph graph = new Graph();
+        graph.addVertex(1, 0, 0);
+        graph.addVertex(2, 0, 0);
+        graph.addVertex(3, 0, 0);
+        TestGraphs.addUndirected(graph, 1, 2, 4);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+
+        long[][] matrix = ManyToManyCH.distanceMatrix(hierarchy, new long[] {1, 99}, new long[] {2, 3, 1});
+        assertEquals(4, matrix[0][0]);
+        assertEquals(-1, matrix[0][1]);
+        assertEquals(0, matrix[0][2]);
+        assertEquals(-1, matrix[1][0]);
+    }
+}
@@ -0,0 +1,128 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.Main.CSRGraph;
+import org.Main.Dijkstra;
+import org.Main.MappedGraphReader;
+import org.junit.Test;
+
+public class MappedGraphReaderTest {
+
+    @Test
+    public void testMatchesStreamReader() throws IOException {
+        String input = randomGraphText(300, 5000, 5);
+        File file = File.createTempFile("graph", ".graph");
+        try {
+            Files.write(file.toPath(), input.getBytes());
+            CSRGraph expected = CSRGraph.readGraphFromInput(new ByteArrayInputStream(input.getBytes()));
+
+            for (int threads : new int[] {1, 4}) {
+                MappedGraphReader.LoadResult result = MappedGraphReader.readWithStats(file.toPath(), threads);
+                CSRGraph graph = result.getGraph();
+                assertEquals(expected.getVertexCount(), graph.getVertexCount());
+                assertEquals(expected.getEdgeCount(), graph.getEdgeCount());
+
+                for (int v = 0; v < graph.getVertexCount(); v++) {
+                    assertEquals(expected.getId(v), graph.getId(v));
+                    assertEquals(expected.getLongitude(v), graph.getLongitude(v), 1e-12);
+                    assertEquals(expected.getLatitude(v), graph.getLatitude(v), 1e-12);
+                    assertEquals(expected.getEdgeEnd(v) - expected.getEdgeStart(v), graph.getEdgeEnd(v) - graph.getEdgeStart(v));
+                }
+                for (long t = 0; t < 50; t++) {
+                    long id = expected.getId((int) t);
+                    assertEquals(Dijkstra.dijkstra(expected, expected.getId(0), id).getShortestPath(),
+                                 Dijkstra.dijkstra(graph, graph.getId(0), id).getShortestPath());
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRejectsMalformedCoordinates() throws IOException {
+        File file = File.createTempFile("graph", ".graph");
+        try {
+            Files.write(file.toPath(), "1 0\n7 1.5e+2 -0.25E-1\n".getBytes());
+            CSRGraph graph = MappedGraphReader.read(file.toPath());
+            assertEquals(150.0, graph.getLongitude(0), 1e-12);
+            assertEquals(-0.025, graph.getLatitude(0), 1e-12);
+
+            // No mantissa digits, or whitespace between the exponent marker and its digits
+            for (String coordinate : new String[] {"-", ".", "+.", "-.e5", "1e 5", "1e", "1e-"}) {
+                Files.write(file.toPath(), ("1 0\n7 " + coordinate + " 55.0\n").getBytes());
+                try {
+                    MappedGraphReader.read(file.toPath());
+                    fail("Accepted coordinate '" + coordinate + "'");
+                } catch (IOException expected) {
+                    // Malformed number
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRejectsOutOfRangeAndRunTogetherNumbers() throws IOException {
+        File file = File.createTempFile("graph", ".graph");
+        try {
+            String vertices = "2 1\n7 1.0 2.0\n8 3.0 4.0\n";
+            String[] malformed = {
+                vertices + "7 8 2147483648\n",          // Cost above Integer.MAX_VALUE
+                vertices + "7 8 -5\n",                  // Negative cost
+                vertices + "7 8 99999999999999999999\n", // Beyond long
+                vertices + "7 8 10-5\n",                // Two numbers without a delimiter
+                "2 1\n7 1.0x 2.0\n8 3.0 4.0\n7 8 1\n",
+                "4294967297 0\n"                        // Vertex count above Integer.MAX_VALUE
+            };
+            for (String input : malformed) {
+                Files.write(file.toPath(), input.getBytes());
+                try {
+                    MappedGraphReader.read(file.toPath());
+                    fail("Accepted " + input);
+                } catch (IOException expected) {
+                    // Out of range or malformed
+                }
+            }
+
+            // Errors name the line of the bad token
+            Files.write(file.toPath(), (vertices + "7 8 2147483648\n").getBytes());
+            try {
+                MappedGraphReader.read(file.toPath());
+                fail("Accepted an edge cost above Integer.MAX_VALUE");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("line 4"));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static String randomGraphText(int n, int m, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder();
+        sb.append(n).append(' ').append(m).append('\n');
+        for (int i = 0; i < n; i++) {
+            // Sparse OSM-style ids and signed coordinates
+            sb.append(1_000_000_000L + 7L * i).append(' ')
+              .append(random.nextDouble() * 20 - 10).append(' ')
+              .append(54.5 + random.nextDouble()).append('\n');
+        }
+        for (int i = 0; i < m; i++) {
+            sb.append(1_000_000_000L + 7L * random.nextInt(n)).append(' ')
+              .append(1_000_000_000L + 7L * random.nextInt(n)).append(' ')
+              .append(1 + random.nextInt(1000)).append('\n');
+        }
+        return sb.toString();
+    }
+}
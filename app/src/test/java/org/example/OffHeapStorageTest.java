@@ -0,0 +1,87 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.Main.BidirectionalDijkstra;
+import org.Main.BidirectionalDijkstraCH;
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.GraphSnapshot;
+import org.Main.HierarchySnapshot;
+import org.Main.OffHeapStorage;
+import org.junit.Test;
+
+public class OffHeapStorageTest {
+
+    @Test
+    public void testCopiedGraphAnswersLikeHeapGraph() {
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.randomUndirected(100, 300, 18));
+        try (OffHeapStorage storage = new OffHeapStorage()) {
+            CSRGraph offHeap = storage.copy(graph);
+            assertEquals(graph.getEdgeCount(), offHeap.getEdgeCount());
+            assertTrue(storage.getAllocatedBytes() >= graph.getEdgeCount() * 16L);
+            for (long s = 0; s < 100; s += 3) {
+                for (long t = 0; t < 100; t += 7) {
+                    assertEquals(Dijkstra.dijkstra(graph, s, t).getShortestPath(),
+                                 BidirectionalDijkstra.bidirectionalDijkstra(offHeap, s, t).getShortestPath());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMappedSnapshotsAnswerLikeHeapGraphs() throws IOException {
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(TestGraphs.grid(15, 15, 19));
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+        CSRGraph graph = CSRGraph.fromGraph(TestGraphs.grid(15, 15, 19));
+
+        Path graphFile = Files.createTempFile("graph", ".snapshot");
+        Path hierarchyFile = Files.createTempFile("graph", ".ch");
+        try (OffHeapStorage storage = new OffHeapStorage()) {
+            GraphSnapshot.write(graph, graphFile);
+            HierarchySnapshot.write(hierarchy, hierarchyFile);
+            CSRGraph mappedGraph = storage.mapGraphSnapshot(graphFile);
+            CHGraph mappedHierarchy = storage.mapHierarchySnapshot(hierarchyFile);
+            assertEquals(Files.size(graphFile) + Files.size(hierarchyFile), storage.getMappedBytes());
+            assertEquals(0, storage.getAllocatedBytes());
+
+            Random random = new Random(20);
+            for (int i = 0; i < 100; i++) {
+                long s = TestGraphs.id(random.nextInt(15), random.nextInt(15), 15);
+                long t = TestGraphs.id(random.nextInt(15), random.nextInt(15), 15);
+                long expected = Dijkstra.dijkstra(graph, s, t).getShortestPath();
+                assertEquals(expected, Dijkstra.dijkstra(mappedGraph, s, t).getShortestPath());
+                assertEquals(expected, BidirectionalDijkstraCH.bidirectionalDijkstra(mappedHierarchy, s, t).getShortestPath());
+                assertEquals(graph.getLatitude(graph.getIndex(t)), mappedGraph.getLatitude(mappedGraph.getIndex(t)), 0.0);
+            }
+        } finally {
+            Files.deleteIfExists(graphFile);
+            Files.deleteIfExists(hierarchyFile);
+        }
+    }
+
+    @Test
+    public void testClosedStorageRejectsAccess() {
+        CSRGraph offHeap;
+        try (OffHeapStorage storage = new OffHeapStorage()) {
+            offHeap = storage.copy(CSRGraph.fromGraph(TestGraphs.grid(3, 3, 1)));
+            assertTrue(offHeap.getCost(0) > 0);
+        }
+        try {
+            offHeap.getCost(0);
+            fail("Read from a closed storage");
+        } catch (IllegalStateException expected) {
+            // The memory was freed with the arena
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.PHAST;
+import org.junit.Test;
+
+public class PHASTTest {
+
+    @Test
+    public void testOneToAllMatchesDijkstra() {
+        Graph graph = TestGraphs.randomUndirected(120, 300, 31);
+        CSRGraph original = CSRGraph.fromGraph(graph);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+        PHAST phast = new PHAST(hierarchy);
+
+        for (long s = 0; s < 120; s += 7) {
+            long[] distances = phast.distancesFrom(s);
+            for (int v = 0; v < hierarchy.getVertexCount(); v++) {
+                long t = hierarchy.getId(v);
+                assertEquals(Dijkstra.dijkstra(original, s, t).getShortestPath(), distances[v]);
+            }
+        }
+    }
+
+    @Test
+    public void testMultipleSourcesInOneSweep() {
+        Graph graph = TestGraphs.grid(15, 15, 8);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        PHAST phast = new PHAST(contractionHierarchy.getCHGraph());
+
+        long[] sources = {TestGraphs.id(0, 0, 15), TestGraphs.id(7, 7, 15), TestGraphs.id(14, 3, 15), 1};
+        long[][] batch = phast.distancesFrom(sources);
+        for (int i = 0; i < sources.length; i++) {
+            long[] single = phast.distancesFrom(sources[i]);
+            for (int v = 0; v < single.length; v++) {
+                assertEquals(single[v], batch[i][v]);
+            }
+        }
+        assertEquals(-1, batch[3][0]);
+    }
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.Main.BatchQueryExecutor;
+import org.Main.CHGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.InstrumentedQueryEngine;
+import org.Main.LatencyHistogram;
+import org.Main.QueryEngine;
+import org.Main.QueryMetrics;
+import org.junit.Test;
+
+public class QueryMetricsTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000, histogram.getPercentile(0.5), 50_000 / 64.0);
+        assertEquals(99_000, histogram.getPercentile(0.99), 99_000 / 64.0);
+        assertEquals(50_000.5, histogram.getMean(), 1e-9);
+        assertEquals(1, new LatencyHistogram() {{ record(1); }}.getPercentile(0.999));
+    }
+
+    @Test
+    public void testInstrumentedEngineAcrossThreads() {
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(TestGraphs.grid(20, 20, 24));
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+        InstrumentedQueryEngine engine = new InstrumentedQueryEngine(QueryEngine.contractionHierarchy(hierarchy), "ch");
+
+        Random random = new Random(25);
+        long[] sources = new long[300];
+        long[] targets = new long[300];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+            targets[i] = TestGraphs.id(random.nextInt(20), random.nextInt(20), 20);
+        }
+        try (BatchQueryExecutor executor = BatchQueryExecutor.platformThreads(4)) {
+            executor.execute(engine, sources, targets);
+        }
+
+        QueryMetrics metrics = engine.getMetrics();
+        assertEquals(300, metrics.getQueryCount());
+        assertTrue(metrics.getHeapPops() <= metrics.getHeapPushes());
+        assertTrue(metrics.getMeetingUpdates() > 0);
+        assertTrue(metrics.getLatencyNanos().getPercentile(0.5) <= metrics.getLatencyNanos().getPercentile(0.99));
+        assertTrue(metrics.toJson().startsWith("{\"engine\":\"ch\",\"queries\":300,"));
+        assertEquals(QueryMetrics.csvHeader().split(",").length, metrics.toCsvRow().split(",").length);
+    }
+}
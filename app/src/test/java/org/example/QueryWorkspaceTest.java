@@ -0,0 +1,66 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.Main.BidirectionalDijkstra;
+import org.Main.BidirectionalDijkstraCH;
+import org.Main.CSRGraph;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.QueryWorkspace;
+import org.Main.SearchSpace;
+import org.junit.Test;
+
+public class QueryWorkspaceTest {
+
+    @Test
+    public void testResetForgetsPreviousSearch() {
+        SearchSpace space = new SearchSpace(3);
+        space.setDistance(1, 42, 0);
+        space.settle(1);
+        assertEquals(42, space.getDistance(1));
+        assertTrue(space.isSettled(1));
+
+        space.reset();
+        assertEquals(Long.MAX_VALUE, space.getDistance(1));
+        assertEquals(-1, space.getParent(1));
+        assertFalse(space.isSettled(1));
+    }
+
+    @Test
+    public void testReusedWorkspaceMatchesFreshSearch() {
+        Random random = new Random(11);
+        Graph graph = new Graph();
+        for (int i = 0; i < 150; i++) {
+            graph.addVertex(i, 0, 0);
+        }
+        for (int i = 0; i < 600; i++) {
+            graph.addEdge(random.nextInt(150), random.nextInt(150), 1 + random.nextInt(50));
+        }
+        CSRGraph csr = CSRGraph.fromGraph(graph);
+        QueryWorkspace workspace = new QueryWorkspace(csr);
+
+        for (int i = 0; i < 200; i++) {
+            long s = random.nextInt(150);
+            long t = random.nextInt(150);
+            long expected = Dijkstra.dijkstra(graph, s, t).getShortestPath();
+            assertEquals(expected, Dijkstra.dijkstra(csr, s, t, workspace).getShortestPath());
+            assertEquals(expected, BidirectionalDijkstra.bidirectionalDijkstra(csr, s, t, workspace).getShortestPath());
+            assertEquals(expected, BidirectionalDijkstraCH.bidirectionalDijkstra(csr, s, t, workspace).getShortestPath());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWorkspaceSizeMustMatchGraph() {
+        Graph graph = new Graph();
+        graph.addVertex(0, 0, 0);
+        graph.addVertex(1, 0, 0);
+        graph.addEdge(0, 1, 1);
+
+        Dijkstra.dijkstra(CSRGraph.fromGraph(graph), 0, 1, new QueryWorkspace(5));
+    }
+}
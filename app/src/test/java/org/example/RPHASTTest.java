@@ -0,0 +1,86 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.Main.CHGraph;
+import org.Main.CSRGraph;
+import org.Main.ContractionHierarchy;
+import org.Main.Dijkstra;
+import org.Main.Graph;
+import org.Main.RPHAST;
+import org.junit.Test;
+
+public class RPHASTTest {
+
+    @Test
+    public void testRestrictedSweepMatchesDijkstra() {
+        Graph graph = TestGraphs.grid(25, 25, 19);
+        CSRGraph original = CSRGraph.fromGraph(graph);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        CHGraph hierarchy = contractionHierarchy.getCHGraph();
+
+        Random random = new Random(4);
+        long[] targets = new long[6];
+        for (int j = 0; j < targets.length; j++) {
+            targets[j] = TestGraphs.id(random.nextInt(25), random.nextInt(25), 25);
+        }
+        RPHAST rphast = new RPHAST(hierarchy, targets);
+        assertTrue(rphast.getSelectedVertexCount() < hierarchy.getVertexCount());
+
+        long[] sources = new long[10];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = TestGraphs.id(random.nextInt(25), random.nextInt(25), 25);
+        }
+        long[][] batch = rphast.distancesFrom(sources);
+        for (int i = 0; i < sources.length; i++) {
+            long[] single = rphast.distancesFrom(sources[i]);
+            for (int j = 0; j < targets.length; j++) {
+                long expected = Dijkstra.dijkstra(original, sources[i], targets[j]).getShortestPath();
+                assertEquals(expected, single[j]);
+                assertEquals(expected, batch[i][j]);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentQueriesShareOneInstance() {
+        Graph graph = TestGraphs.grid(15, 15, 23);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+        long[] targets = {TestGraphs.id(0, 0, 15), TestGraphs.id(7, 7, 15), TestGraphs.id(14, 3, 15)};
+        RPHAST rphast = new RPHAST(contractionHierarchy.getCHGraph(), targets);
+
+        long[][] expected = new long[225][];
+        for (int v = 0; v < 225; v++) {
+            expected[v] = rphast.distancesFrom(TestGraphs.id(v / 15, v % 15, 15));
+        }
+        // Every thread works in its own reused search space
+        IntStream.range(0, 225).parallel().forEach(v -> {
+            long[] distances = rphast.distancesFrom(TestGraphs.id(v / 15, v % 15, 15));
+            for (int j = 0; j < targets.length; j++) {
+                assertEquals(expected[v][j], distances[j]);
+            }
+        });
+    }
+
+    @Test
+    public void testUnreachableAndUnknownTargets() {
+        Graph graph = new Graph();
+        graph.addVertex(1, 0, 0);
+        graph.addVertex(2, 0, 0);
+        graph.addVertex(3, 0, 0);
+        TestGraphs.addUndirected(graph, 1, 2, 4);
+        ContractionHierarchy contractionHierarchy = new ContractionHierarchy(graph);
+        contractionHierarchy.preprocess();
+
+        long[] distances = new RPHAST(contractionHierarchy.getCHGraph(), new long[] {2, 3, 42}).distancesFrom(1);
+        assertEquals(4, distances[0]);
+        assertEquals(-1, distances[1]);
+        assertEquals(-1, distances[2]);
+    }
+}
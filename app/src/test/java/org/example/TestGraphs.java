@@ -0,0 +1,49 @@
+package org.example;
+
+import java.util.Random;
+
+import org.Main.Graph;
+
+// Graph generators shared by the tests
+class TestGraphs {
+
+    // Undirected road-like grid: vertex ids 1000 + row * cols + col, every edge in both directions
+    static Graph grid(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        Graph graph = new Graph();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                graph.addVertex(id(r, c, cols), 10.0 + c * 0.01, 55.0 + r * 0.01);
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (c + 1 < cols) addUndirected(graph, id(r, c, cols), id(r, c + 1, cols), 600 + random.nextInt(600));
+                if (r + 1 < rows) addUndirected(graph, id(r, c, cols), id(r + 1, c, cols), 1100 + random.nextInt(600));
+            }
+        }
+        return graph;
+    }
+
+    // Random undirected graph on ids 0..n-1
+    static Graph randomUndirected(int n, int m, long seed) {
+        Random random = new Random(seed);
+        Graph graph = new Graph();
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(i, random.nextDouble(), random.nextDouble());
+        }
+        for (int i = 0; i < m; i++) {
+            addUndirected(graph, random.nextInt(n), random.nextInt(n), 1 + random.nextInt(100));
+        }
+        return graph;
+    }
+
+    static long id(int row, int col, int cols) {
+        return 1000 + row * cols + col;
+    }
+
+    static void addUndirected(Graph graph, long a, long b, int cost) {
+        graph.addEdge(a, b, cost);
+        graph.addEdge(b, a, cost);
+    }
+}
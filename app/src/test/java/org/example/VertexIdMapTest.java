@@ -0,0 +1,44 @@
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.Main.VertexIdMap;
+import org.junit.Test;
+
+public class VertexIdMapTest {
+
+    @Test
+    public void testAddAndLookup() {
+        VertexIdMap map = new VertexIdMap(2);
+        assertEquals(0, map.add(5_000_000_000L));
+        assertEquals(1, map.add(17L));
+        assertEquals(0, map.add(5_000_000_000L)); // Already known
+        assertEquals(2, map.size());
+
+        assertEquals(1, map.getIndex(17L));
+        assertEquals(-1, map.getIndex(18L));
+        assertEquals(5_000_000_000L, map.getId(0));
+    }
+
+    @Test
+    public void testGrowsPastExpectedSize() {
+        Random random = new Random(3);
+        long[] ids = new long[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextLong();
+        }
+
+        VertexIdMap map = new VertexIdMap(1);
+        for (long id : ids) {
+            map.add(id);
+        }
+
+        assertEquals(ids.length, map.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i, map.getIndex(ids[i]));
+            assertEquals(ids[i], map.getId(i));
+        }
+    }
+}